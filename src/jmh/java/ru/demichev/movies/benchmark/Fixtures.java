@@ -0,0 +1,76 @@
+package ru.demichev.movies.benchmark;
+
+import ru.demichev.movies.domain.Actor;
+import ru.demichev.movies.domain.Director;
+import ru.demichev.movies.domain.Genre;
+import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.dto.GenreDto;
+import ru.demichev.movies.dto.MovieDto;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+final class Fixtures {
+    static final int ACTORS_PER_MOVIE = 10;
+    static final int GENRES_PER_MOVIE = 3;
+    static final int MOVIES_PER_GENRE = 10;
+
+    private Fixtures() {
+    }
+
+    static Movie movie(long id){
+        Director director = new Director("Director", "Number " + id, 1960);
+        director.setId(id);
+        Movie movie = new Movie(id, "Movie " + id, "Description of movie " + id, 2000, director).withRating(7);
+
+        Set<Movie> movies = Set.of(movie);
+        Set<Actor> actors = new HashSet<>();
+        for (long i = 0; i < ACTORS_PER_MOVIE; i++){
+            Actor actor = new Actor("First" + i, "Last" + i, 1970);
+            actor.setId(id * ACTORS_PER_MOVIE + i);
+            actor.setCountry("Country");
+            actor.setBiography("Biography of actor " + i);
+            actor.setMovies(movies);
+            actors.add(actor);
+        }
+        Set<Genre> genres = new HashSet<>();
+        for (long i = 0; i < GENRES_PER_MOVIE; i++){
+            genres.add(new Genre(i, "Genre " + i, movies));
+        }
+        movie.setActors(actors);
+        movie.setGenres(genres);
+        return movie;
+    }
+
+    static List<MovieDto> movieDtos(int size){
+        List<MovieDto> movies = new ArrayList<>(size);
+        for (long id = 0; id < size; id++){
+            movies.add(new MovieDto(
+                    id,
+                    "Movie " + id,
+                    2000,
+                    "Description of movie " + id,
+                    7,
+                    "Director",
+                    Set.of("Actor One", "Actor Two", "Actor Three"),
+                    Set.of("Drama", "Comedy")
+            ));
+        }
+        return movies;
+    }
+
+    static List<GenreDto> genreDtos(int size){
+        List<GenreDto> genres = new ArrayList<>(size);
+        for (long id = 0; id < size; id++){
+            Set<MovieDto> movies = new LinkedHashSet<>();
+            for (long i = 0; i < MOVIES_PER_GENRE; i++){
+                movies.add(new MovieDto(id * MOVIES_PER_GENRE + i, "Movie " + i, 7));
+            }
+            genres.add(new GenreDto(id, "Genre " + id, movies));
+        }
+        return genres;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.demichev.movies.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.demichev.movies.domain.Actor;
+import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.dto.ActorDto;
+import ru.demichev.movies.dto.MovieDto;
+import ru.demichev.movies.mapper.impl.ActorMapperImpl;
+import ru.demichev.movies.mapper.impl.MovieMapperImpl;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+    private final MovieMapperImpl movieMapper = new MovieMapperImpl(null);
+    private final ActorMapperImpl actorMapper = new ActorMapperImpl();
+
+    private Movie movie;
+    private Actor actor;
+
+    @Setup
+    public void setUp(){
+        movie = Fixtures.movie(1L);
+        actor = movie.getActors().iterator().next();
+    }
+
+    @Benchmark
+    public MovieDto movieToDto(){
+        return movieMapper.toDto(movie);
+    }
+
+    @Benchmark
+    public ActorDto actorToDto(){
+        return actorMapper.toDto(actor);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.demichev.movies.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import ru.demichev.movies.security.RoleCheckService;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoleCheckBenchmark {
+    @Param({"ROLE_ADMIN", "ROLE_VIEWER"})
+    private String role;
+
+    private final RoleCheckService roleCheckService = new RoleCheckService();
+    private Authentication authentication;
+
+    @Setup
+    public void setUp(){
+        authentication = new UsernamePasswordAuthenticationToken(
+                "user", null, AuthorityUtils.createAuthorityList(role, "ROLE_USER"));
+    }
+
+    @Benchmark
+    public boolean canAdminAndEditorCallGetInformation(){
+        return roleCheckService.canAdminAndEditorCallGetInformation(authentication);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.demichev.movies.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.demichev.movies.dto.GenreDto;
+import ru.demichev.movies.dto.MovieDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+    @Param({"100", "10000", "100000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<MovieDto> movies;
+    private List<GenreDto> genres;
+
+    @Setup
+    public void setUp(){
+        // the mapper Spring Boot hands to the controllers, with the modules and features it registers
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(JacksonAutoConfiguration.class)){
+            objectMapper = context.getBean(ObjectMapper.class);
+        }
+        movies = Fixtures.movieDtos(size);
+        genres = Fixtures.genreDtos(size);
+    }
+
+    @Benchmark
+    public byte[] movies() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(movies);
+    }
+
+    @Benchmark
+    public byte[] genres() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(genres);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.demichev.movies.repository;
+
+import org.hibernate.jpa.spi.NativeQueryTupleTransformer;
+import org.openjdk.jmh.annotations.*;
+import ru.demichev.movies.dto.GenreDto;
+
+import javax.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// lives in the repository package because the grouping loop is package-private
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GenreTupleGroupingBenchmark {
+    private static final String[] ALIASES = {"genre_id", "genre_name", "movie_id", "movie_title", "movie_rating"};
+
+    @Param({"10", "1000"})
+    private int genres;
+
+    @Param({"10"})
+    private int topMoviesCount;
+
+    private List<Tuple> tuples;
+
+    @Setup
+    public void setUp(){
+        // the transformer Hibernate applies to native queries mapped to Tuple.class
+        NativeQueryTupleTransformer transformer = new NativeQueryTupleTransformer();
+        tuples = new ArrayList<>(genres * topMoviesCount);
+        for (long genreId = 0; genreId < genres; genreId++){
+            for (long i = 0; i < topMoviesCount; i++){
+                tuples.add((Tuple) transformer.transformTuple(
+                        new Object[]{genreId, "Genre " + genreId, genreId * topMoviesCount + i, "Movie " + i, 10 - (int) i % 10},
+                        ALIASES
+                ));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<GenreDto> groupByGenre(){
+        return CustomGenreRepositoryImpl.groupByGenre(tuples);
+    }
+}
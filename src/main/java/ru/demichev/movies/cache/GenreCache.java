@@ -0,0 +1,118 @@
+package ru.demichev.movies.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.demichev.movies.domain.Genre;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Component
+public class GenreCache implements MeterBinder {
+    private static final String ALL = "all";
+
+    private final Cache<Long, Genre> byId;
+    private final Cache<String, Genre> byName;
+    private final Cache<String, List<Genre>> all;
+    private final AtomicLong version = new AtomicLong();
+
+    public GenreCache(@Value("${movies.cache.genre.max-size:10000}") long maxSize) {
+        this.byId = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+        this.byName = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+        this.all = Caffeine.newBuilder().maximumSize(1).recordStats().build();
+    }
+
+    public Optional<Genre> findById(Long id, Function<Long, Optional<Genre>> loader){
+        Genre cached = byId.getIfPresent(id);
+        if (cached != null){
+            return Optional.of(copy(cached));
+        }
+        long current = version.get();
+        Optional<Genre> loaded = loader.apply(id).map(GenreCache::copy);
+        loaded.ifPresent(genre -> store(genre, current));
+        return loaded.map(GenreCache::copy);
+    }
+
+    public Optional<Genre> findByName(String name, Function<String, Optional<Genre>> loader){
+        Genre cached = byName.getIfPresent(normalize(name));
+        if (cached != null){
+            return Optional.of(copy(cached));
+        }
+        long current = version.get();
+        Optional<Genre> loaded = loader.apply(name).map(GenreCache::copy);
+        loaded.ifPresent(genre -> store(genre, current));
+        return loaded.map(GenreCache::copy);
+    }
+
+    public List<Genre> findAll(Supplier<List<Genre>> loader){
+        List<Genre> cached = all.getIfPresent(ALL);
+        if (cached == null){
+            long current = version.get();
+            cached = loader.get().stream().map(GenreCache::copy).collect(Collectors.toUnmodifiableList());
+            all.put(ALL, cached);
+            cached.forEach(genre -> store(genre, current));
+            if (version.get() != current){
+                all.invalidate(ALL);
+            }
+        }
+        return cached.stream().map(GenreCache::copy).collect(Collectors.toList());
+    }
+
+    public void invalidateAfterCommit(){
+        if (TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateAll();
+                }
+            });
+        } else {
+            invalidateAll();
+        }
+    }
+
+    public void invalidateAll(){
+        version.incrementAndGet();
+        byId.invalidateAll();
+        byName.invalidateAll();
+        all.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byId, "genre.id");
+        CaffeineCacheMetrics.monitor(registry, byName, "genre.name");
+        CaffeineCacheMetrics.monitor(registry, all, "genre.all");
+    }
+
+    private void store(Genre genre, long loadedAt){
+        byId.put(genre.getId(), genre);
+        byName.put(normalize(genre.getName()), genre);
+        if (version.get() != loadedAt){
+            byId.invalidate(genre.getId());
+            byName.invalidate(normalize(genre.getName()));
+        }
+    }
+
+    private static String normalize(String name){
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    // only id and name are kept: they are bounded in size and change on genre writes alone,
+    // movie lists are read through the paged and top queries instead
+    private static Genre copy(Genre genre){
+        return new Genre(genre.getId(), genre.getName(), null);
+    }
+}
@@ -1,6 +1,7 @@
 package ru.demichev.movies.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
@@ -9,15 +10,21 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import ru.demichev.movies.domain.Actor;
 import ru.demichev.movies.dto.ActorDto;
+import ru.demichev.movies.dto.NameDto;
+import ru.demichev.movies.dto.PageDto;
 import ru.demichev.movies.dto.crt.ActorCreateDto;
 import ru.demichev.movies.exceptions.ControllerException;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.mapper.ActorMapper;
+import ru.demichev.movies.paging.KeysetCursor;
 import ru.demichev.movies.service.ActorService;
+import ru.demichev.movies.service.Upserted;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -30,14 +37,41 @@ import java.util.stream.Collectors;
 public class ActorController {
     private final ActorService actorService;
     private final ActorMapper actorMapper;
+    private final ObjectMapper objectMapper;
 
 
     @GetMapping("")
-    @ApiOperation("Getting list all actors")
-    public ResponseEntity<List<ActorDto>> findAll() {
-        return ResponseEntity.ok(actorService.findAll().stream()
-                .map(actorMapper::toDto)
-                .collect(Collectors.toList()));
+    @ApiOperation("Getting page of actors")
+    public ResponseEntity<PageDto<ActorDto>> findAll(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = KeysetCursor.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(PageDto.of(
+                actorService.findPage(KeysetCursor.decodeId(cursor), KeysetCursor.checkLimit(limit)),
+                actorMapper::toDto,
+                actor -> KeysetCursor.encode(actor.getId())
+        ));
+    }
+
+    @GetMapping("/export")
+    @ApiOperation("Export all actors as a streamed JSON array, admins only")
+    public WebAsyncTask<Void> export(HttpServletResponse response){
+        return JsonExport.<ActorDto>array(objectMapper, response, consumer -> actorService.exportActors(actor -> consumer.accept(actorMapper.toDto(actor))));
+    }
+
+    @GetMapping("/names")
+    @ApiOperation("Searching actors by part of full name")
+    public ResponseEntity<List<NameDto>> findNames(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "limit", defaultValue = "20") int limit){
+        if (query.isBlank()){
+            throw new ControllerException("Search query can't be blank", HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(
+                actorService.searchNames(query, KeysetCursor.checkLimit(limit))
+                        .stream()
+                        .map(NameDto::of)
+                        .collect(Collectors.toList())
+        );
     }
 
     @GetMapping("/{id}")
@@ -75,6 +109,14 @@ public class ActorController {
     }
 
 
+    @PutMapping("/upsert")
+    @ApiOperation("Create actor or update biography and country of the actor with the same name and year of birth")
+    @Secured({"ROLE_ADMIN", "ROLE_EDITOR"})
+    public ResponseEntity<ActorDto> upsertActor(@RequestBody @Valid ActorCreateDto dto) {
+        Upserted<Actor> actor = actorService.upsertActor(actorMapper.toEntity(dto));
+        return new ResponseEntity<>(actorMapper.toDto(actor.value()), actor.created() ? HttpStatus.CREATED : HttpStatus.OK);
+    }
+
     @PatchMapping("{id}")
     @ApiOperation("Update actor")
     @Secured({"ROLE_ADMIN", "ROLE_EDITOR"})
@@ -122,22 +164,28 @@ public class ActorController {
     }
 
 
-    @GetMapping("/movie/{id}")
-    public List<ActorDto> findActorsNotAssignedMovie(@PathVariable Long id,
-                                                  @RequestParam("assigned") boolean assigned){
-        if(assigned){
-            return actorService
-                    .findActorsAssignedToMovie(id)
-                    .stream()
-                    .map(actorMapper::toDto)
-                    .collect(Collectors.toList());
-        }else{
-            return actorService
-                    .findActorsNotAssignedToMovie(id)
-                    .stream()
-                    .map(actorMapper::toDto)
-                    .collect(Collectors.toList());
-        }
+    @GetMapping(value = "/movie/{id}", params = "assigned=true")
+    @ApiOperation("Getting actors assigned to movie")
+    public List<ActorDto> findActorsAssignedMovie(@PathVariable Long id){
+        return actorService
+                .findActorsAssignedToMovie(id)
+                .stream()
+                .map(actorMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @GetMapping(value = "/movie/{id}", params = "assigned=false")
+    @ApiOperation("Getting page of actors not assigned to movie, optionally filtered by last name prefix")
+    public ResponseEntity<PageDto<NameDto>> findActorsNotAssignedMovie(
+            @PathVariable Long id,
+            @RequestParam(name = "prefix", required = false) String prefix,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = KeysetCursor.DEFAULT_LIMIT) int limit){
+        return ResponseEntity.ok(PageDto.of(
+                actorService.findActorsNotAssignedToMovie(id, prefix, KeysetCursor.decodeId(cursor), KeysetCursor.checkLimit(limit)),
+                NameDto::of,
+                actor -> KeysetCursor.encode(actor.getId())
+        ));
     }
 
     @GetMapping("/movieTestProjection/{id}")
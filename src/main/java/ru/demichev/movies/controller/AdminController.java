@@ -5,18 +5,31 @@ import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.demichev.movies.domain.RoleEnum;
 import ru.demichev.movies.domain.UserPrincipal;
+import ru.demichev.movies.dto.ImportResultDto;
 import ru.demichev.movies.dto.UserDto;
 import ru.demichev.movies.dto.crt.UserCreateDto;
+import ru.demichev.movies.exceptions.ControllerException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.mapper.UserMapper;
 import ru.demichev.movies.repository.RoleRepository;
 import ru.demichev.movies.service.UserService;
+import ru.demichev.movies.service.importer.ImportFormat;
+import ru.demichev.movies.service.importer.MovieImportService;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Slf4j
@@ -25,11 +38,15 @@ import java.util.List;
 @RequestMapping("api/v1/admin")
 @Api
 public class AdminController {
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String CSV_VALUE = "text/csv";
+
     @Autowired
     private final UserService userService;
     private final UserMapper userMapper;
 
     private final RoleRepository roleRepository;
+    private final MovieImportService movieImportService;
 
     @GetMapping("/user")
     @ApiOperation("Getting list all users")
@@ -71,6 +88,27 @@ public class AdminController {
         return ResponseEntity.ok(userMapper.toDto(oldUserPrincipal));
     }
 
+    @PostMapping(value = "/movie/import", consumes = {NDJSON_VALUE, CSV_VALUE})
+    @ApiOperation("Streaming import of movies from NDJSON or CSV")
+    public ResponseEntity<ImportResultDto> importMovies(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestParam(name = "batchSize", defaultValue = "1000") int batchSize,
+            HttpServletRequest request) throws IOException {
+        if (batchSize < 1 || batchSize > MovieImportService.MAX_BATCH_SIZE){
+            throw new ControllerException(
+                    String.format("Batch size must be between 1 and %s", MovieImportService.MAX_BATCH_SIZE),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        ImportFormat format = contentType.isCompatibleWith(MediaType.parseMediaType(CSV_VALUE)) ? ImportFormat.CSV : ImportFormat.NDJSON;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        try (Reader reader = new InputStreamReader(request.getInputStream(), charset)){
+            return ResponseEntity.ok(movieImportService.importMovies(reader, format, batchSize));
+        } catch (IllegalArgumentException e){
+            throw new ControllerException(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @DeleteMapping("/user/{id}")
     public ResponseEntity<List<UserDto>> deleteUser (@PathVariable Long id){
         userService.deleteUser(id);
@@ -0,0 +1,45 @@
+package ru.demichev.movies.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.demichev.movies.dto.TokenDto;
+import ru.demichev.movies.dto.crt.LoginDto;
+import ru.demichev.movies.exceptions.ControllerException;
+import ru.demichev.movies.security.TokenService;
+
+import javax.validation.Valid;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/v1/auth")
+@Api
+public class AuthController {
+    private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
+
+    @PostMapping("/token")
+    @ApiOperation("Issue access token")
+    public ResponseEntity<TokenDto> issueToken(@RequestBody @Valid LoginDto dto){
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(dto.getLogin(), dto.getPassword())
+            );
+        } catch (AuthenticationException e){
+            throw new ControllerException("Bad credentials", HttpStatus.UNAUTHORIZED);
+        }
+        TokenService.Token token = tokenService.issue(authentication.getName(), authentication.getAuthorities());
+        return ResponseEntity.ok(new TokenDto(token.value(), "Bearer", token.expiresAt()));
+    }
+}
@@ -1,6 +1,7 @@
 package ru.demichev.movies.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
@@ -9,15 +10,21 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import ru.demichev.movies.domain.Director;
 import ru.demichev.movies.dto.DirectorDto;
+import ru.demichev.movies.dto.NameDto;
+import ru.demichev.movies.dto.PageDto;
 import ru.demichev.movies.dto.crt.DirectorCreateDto;
 import ru.demichev.movies.exceptions.ControllerException;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.mapper.DirectorMapper;
+import ru.demichev.movies.paging.KeysetCursor;
 import ru.demichev.movies.service.DirectorService;
+import ru.demichev.movies.service.Upserted;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -30,13 +37,40 @@ import java.util.stream.Collectors;
 public class DirectorController {
     private final DirectorService directorService;
     private final DirectorMapper directorMapper;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("")
-    @ApiOperation("Getting list all directors")
-    public ResponseEntity<List<DirectorDto>> findAll(){
-        return  ResponseEntity.ok(directorService.findAll().stream()
-                .map(directorMapper::toDto)
-                .collect(Collectors.toList()));
+    @ApiOperation("Getting page of directors")
+    public ResponseEntity<PageDto<DirectorDto>> findAll(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = KeysetCursor.DEFAULT_LIMIT) int limit){
+        return  ResponseEntity.ok(PageDto.of(
+                directorService.findPage(KeysetCursor.decodeId(cursor), KeysetCursor.checkLimit(limit)),
+                directorMapper::toDto,
+                director -> KeysetCursor.encode(director.getId())
+        ));
+    }
+
+    @GetMapping("/export")
+    @ApiOperation("Export all directors as a streamed JSON array, admins only")
+    public WebAsyncTask<Void> export(HttpServletResponse response){
+        return JsonExport.<DirectorDto>array(objectMapper, response, consumer -> directorService.exportDirectors(director -> consumer.accept(directorMapper.toDto(director))));
+    }
+
+    @GetMapping("/names")
+    @ApiOperation("Searching directors by part of full name")
+    public ResponseEntity<List<NameDto>> findNames(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "limit", defaultValue = "20") int limit){
+        if (query.isBlank()){
+            throw new ControllerException("Search query can't be blank", HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(
+                directorService.searchNames(query, KeysetCursor.checkLimit(limit))
+                        .stream()
+                        .map(NameDto::of)
+                        .collect(Collectors.toList())
+        );
     }
 
     @GetMapping("/{id}")
@@ -73,6 +107,14 @@ public class DirectorController {
     }
 
 
+    @PutMapping("/upsert")
+    @ApiOperation("Create director or update biography and country of the director with the same name and year of birth")
+    @Secured({"ROLE_ADMIN", "ROLE_EDITOR"})
+    public ResponseEntity<DirectorDto> upsertDirector(@RequestBody @Valid DirectorCreateDto dto){
+        Upserted<Director> director = directorService.upsertDirector(directorMapper.toEntity(dto));
+        return new ResponseEntity<>(directorMapper.toDto(director.value()), director.created() ? HttpStatus.CREATED : HttpStatus.OK);
+    }
+
     @PatchMapping("{id}")
     @ApiOperation("Update director")
     @Secured({"ROLE_ADMIN", "ROLE_EDITOR"})
@@ -9,12 +9,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
 import ru.demichev.movies.domain.Genre;
+import ru.demichev.movies.dto.GenreBulkResultDto;
 import ru.demichev.movies.dto.GenreDto;
+import ru.demichev.movies.dto.PageDto;
 import ru.demichev.movies.dto.crt.GenreCreateDto;
 import ru.demichev.movies.exceptions.ControllerException;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.mapper.GenreMapper;
+import ru.demichev.movies.paging.KeysetCursor;
 import ru.demichev.movies.service.GenreService;
 
 import javax.validation.Valid;
@@ -30,28 +33,37 @@ import java.util.stream.Collectors;
 @RequestMapping("api/v1/movies/genre")
 @Api
 public class GenreController {
+    private static final int MAX_TOP_MOVIES_COUNT = 100;
+
     private final GenreService genreService;
     private final GenreMapper genreMapper;
 
     @GetMapping("")
-    @ApiOperation("Getting list all genres")
-    public ResponseEntity<List<GenreDto>> findAll() {
+    @ApiOperation("Getting page of genres ordered by name")
+    public ResponseEntity<PageDto<GenreDto>> findAll(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = KeysetCursor.DEFAULT_LIMIT) int limit) {
+        KeysetCursor.Position after = KeysetCursor.decodeIdAndName(cursor);
         return new ResponseEntity<>(
-                genreService
-                        .findAll()
-                        .stream()
-                        .map(genreMapper::toDto)
-                        .collect(Collectors.toList()), HttpStatus.OK
+                PageDto.of(
+                        genreService.findPage(
+                                after != null ? after.name() : null,
+                                after != null ? after.id() : null,
+                                KeysetCursor.checkLimit(limit)
+                        ),
+                        genreMapper::toDto,
+                        genre -> KeysetCursor.encode(genre.getId(), genre.getName())
+                ), HttpStatus.OK
         );
     }
 
     @GetMapping("/{id}")
-    @ApiOperation("Getting genre by Id")
+    @ApiOperation("Getting genre by Id with its top rated movies")
     public ResponseEntity<GenreDto> findById(
             @Valid @NotBlank @PathVariable Long id) {
         try {
             Genre genre = genreService.findById(id);
-            return new ResponseEntity<>(genreMapper.toDto(genre), HttpStatus.OK);
+            return new ResponseEntity<>(genreService.withTopMovies(genre, MAX_TOP_MOVIES_COUNT), HttpStatus.OK);
         }catch (NotFoundException e){
             throw new ControllerException(
                     String.format("Genre with id '%s' not found", id),
@@ -61,12 +73,12 @@ public class GenreController {
     }
 
     @GetMapping("/name")
-    @ApiOperation("Getting genre by Name")
+    @ApiOperation("Getting genre by Name with its top rated movies")
     public ResponseEntity<GenreDto> findByName(
             @Valid @NotBlank @RequestParam(name = "name") String name) {
         try {
             Genre genre = genreService.findByName(name);
-            return new ResponseEntity<>(genreMapper.toDto(genre), HttpStatus.OK);
+            return new ResponseEntity<>(genreService.withTopMovies(genre, MAX_TOP_MOVIES_COUNT), HttpStatus.OK);
         }catch (NotFoundException e){
             throw new ControllerException(
                     String.format("Genre with name '%s' not found", name),
@@ -78,9 +90,10 @@ public class GenreController {
     @GetMapping("/names")
     @ApiOperation("Getting genre by Prefix")
     public ResponseEntity<List<GenreDto>> findByPrefix(
-            @Valid @NotBlank @RequestParam(name = "prefix") String prefix) {
+            @Valid @NotBlank @RequestParam(name = "prefix") String prefix,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
         return new ResponseEntity<>(
-                genreService.findByContainingPrefix(prefix)
+                genreService.findByContainingPrefix(prefix, KeysetCursor.checkLimit(limit))
                         .stream()
                         .map(genreMapper::toDto)
                         .collect(Collectors.toList()),
@@ -127,6 +140,17 @@ public class GenreController {
         }
     }
 
+    @PutMapping("/bulk")
+    @ApiOperation("Create genres, skipping names that are already present")
+    @Secured({"ROLE_ADMIN", "ROLE_EDITOR"})
+    public ResponseEntity<List<GenreBulkResultDto>> createGenresBulk(@RequestBody @Valid List<GenreCreateDto> dto) {
+        return ResponseEntity.ok(genreService.createGenresBulk(
+                dto.stream()
+                        .map(genreMapper::toEntity)
+                        .collect(Collectors.toList())
+        ));
+    }
+
     @PatchMapping("/{id}")
     @ApiOperation("Update genre")
     @Secured({"ROLE_ADMIN", "ROLE_EDITOR"})
@@ -173,11 +197,27 @@ public class GenreController {
     @ApiOperation("Getting genre by Id in top")
     public ResponseEntity<List<GenreDto>> findAllByIdAndTop(@RequestParam(name = "genre_id") String id,
                                             @RequestParam(name = "count") String topMovieCount ) {
-        List<Long> collectionId = Arrays
-                .stream(id.split(","))
-                .map(s -> Long.parseLong(s.trim()))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(genreService.findGenreWithMovie(collectionId, Integer.parseInt(topMovieCount)));
+        List<Long> collectionId;
+        int count;
+        try {
+            collectionId = Arrays
+                    .stream(id.split(","))
+                    .map(s -> Long.parseLong(s.trim()))
+                    .collect(Collectors.toList());
+            count = Integer.parseInt(topMovieCount.trim());
+        } catch (NumberFormatException e){
+            throw new ControllerException(
+                    String.format("genre_id must be a comma separated list of ids and count a number, got '%s' and '%s'", id, topMovieCount),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (count < 1 || count > MAX_TOP_MOVIES_COUNT){
+            throw new ControllerException(
+                    String.format("Count must be between 1 and %s", MAX_TOP_MOVIES_COUNT),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        return ResponseEntity.ok(genreService.findGenreWithMovie(collectionId, count));
     }
 
 }
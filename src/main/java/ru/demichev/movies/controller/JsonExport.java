@@ -0,0 +1,39 @@
+package ru.demichev.movies.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+final class JsonExport {
+    // a full catalog export outlives the default async request timeout, other async requests keep it
+    static final Duration TIMEOUT = Duration.ofHours(1);
+
+    private JsonExport() {
+    }
+
+    // the task writes to the response itself, so its own timeout covers the whole stream
+    static <T> WebAsyncTask<Void> array(ObjectMapper objectMapper, HttpServletResponse response, Consumer<Consumer<T>> source){
+        return new WebAsyncTask<>(TIMEOUT.toMillis(), () -> {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())){
+                generator.writeStartArray();
+                source.accept(item -> {
+                    try {
+                        generator.writeObject(item);
+                    } catch (IOException e){
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+            return null;
+        });
+    }
+}
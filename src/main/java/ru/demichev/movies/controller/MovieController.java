@@ -1,26 +1,34 @@
 package ru.demichev.movies.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
-import ru.demichev.movies.domain.Actor;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.dto.AssignResultDto;
 import ru.demichev.movies.dto.MovieDto;
+import ru.demichev.movies.dto.PageDto;
+import ru.demichev.movies.dto.crt.MovieActorLinkDto;
 import ru.demichev.movies.dto.crt.MovieCreateDto;
+import ru.demichev.movies.dto.crt.MovieGenreLinkDto;
 import ru.demichev.movies.exceptions.ControllerException;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.mapper.MovieMapper;
-import ru.demichev.movies.service.ActorService;
+import ru.demichev.movies.paging.KeysetCursor;
+import ru.demichev.movies.repository.MovieLink;
 import ru.demichev.movies.service.MovieService;
+import ru.demichev.movies.service.Upserted;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.util.List;
 import java.util.Map;
@@ -35,14 +43,45 @@ public class MovieController {
 
     private final MovieService movieService;
     private final MovieMapper movieMapper;
-    private final ActorService actorService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("")
-    @ApiOperation("Getting list all movies")
-    public ResponseEntity<List<MovieDto>> findAll(){
-        return  ResponseEntity.ok(movieService.findAll().stream()
-                .map(movieMapper::toDto)
-                .collect(Collectors.toList()));
+    @ApiOperation("Getting page of movies")
+    public ResponseEntity<PageDto<MovieDto>> findAll(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = KeysetCursor.DEFAULT_LIMIT) int limit){
+        return  ResponseEntity.ok(PageDto.of(
+                movieService.findPage(KeysetCursor.decodeId(cursor), KeysetCursor.checkLimit(limit)),
+                movieMapper::toDto,
+                movie -> KeysetCursor.encode(movie.getId())
+        ));
+    }
+
+    @GetMapping("/search")
+    @ApiOperation("Full-text search of movies by title and description")
+    public ResponseEntity<PageDto<MovieDto>> search(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = KeysetCursor.DEFAULT_LIMIT) int limit){
+        if (query.isBlank()){
+            throw new ControllerException("Search query can't be blank", HttpStatus.BAD_REQUEST);
+        }
+        Long offset = KeysetCursor.decodeId(cursor);
+        if (offset != null && (offset < 0 || offset > Integer.MAX_VALUE)){
+            throw new ControllerException(String.format("Cursor '%s' is invalid", cursor), HttpStatus.BAD_REQUEST);
+        }
+        int from = offset == null ? 0 : offset.intValue();
+        Slice<Movie> page = movieService.search(query.trim(), from, KeysetCursor.checkLimit(limit));
+        return ResponseEntity.ok(new PageDto<>(
+                page.getContent().stream().map(movieMapper::toDto).collect(Collectors.toList()),
+                page.hasNext() ? KeysetCursor.encode((long) from + limit) : null
+        ));
+    }
+
+    @GetMapping("/export")
+    @ApiOperation("Export all movies as a streamed JSON array, admins only")
+    public WebAsyncTask<Void> export(HttpServletResponse response){
+        return JsonExport.<MovieDto>array(objectMapper, response, consumer -> movieService.exportMovies(movie -> consumer.accept(movieMapper.toDto(movie))));
     }
 
     @GetMapping("/{id}")
@@ -72,10 +111,24 @@ public class MovieController {
                     String.format("Movie with title '%s' is already present", dto.getTitle()),
                     HttpStatus.CONFLICT
             );
+        }catch (NotFoundException e){
+            throw new ControllerException(e.getMessage(), HttpStatus.NOT_FOUND);
         }
     }
 
 
+    @PutMapping("/upsert")
+    @ApiOperation("Create movie or update description, rating and director of the movie with the same title and year")
+    @Secured({"ROLE_ADMIN", "ROLE_EDITOR"})
+    public ResponseEntity<MovieDto> upsertMovie(@RequestBody @Valid MovieCreateDto dto){
+        try {
+            Upserted<Movie> movie = movieService.upsertMovie(movieMapper.toEntity(dto));
+            return new ResponseEntity<>(movieMapper.toDto(movie.value()), movie.created() ? HttpStatus.CREATED : HttpStatus.OK);
+        }catch (NotFoundException e){
+            throw new ControllerException(e.getMessage(), HttpStatus.NOT_FOUND);
+        }
+    }
+
     @PatchMapping("{id}")
     @Secured({"ROLE_ADMIN", "ROLE_EDITOR"})
     public ResponseEntity<MovieDto> updateMovie(@RequestBody @Valid MovieCreateDto dto,
@@ -115,16 +168,46 @@ public class MovieController {
         );
     }
 
-    @Transactional
     @PostMapping("/{movieId}/assign")
     @Secured({"ROLE_ADMIN", "ROLE_EDITOR"})
     public MovieDto assignActor(@PathVariable("movieId") Long movie_id,
                              @RequestParam(name = "actor_id") Long actor_id){
-        Movie movie = movieService.getById(movie_id);
-        Actor actor = actorService.getById(actor_id);
-        actor.getMovies().add(movie);
-        movie.getActors().add(actor);
-        return movieMapper.toDto(movieService.updateMovie(movie,movie_id));
+        try {
+            movieService.assignActors(List.of(new MovieLink(movie_id, actor_id)));
+            return movieMapper.toDto(movieService.findById(movie_id));
+        }catch (NotFoundException e){
+            throw new ControllerException(e.getMessage(), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @PostMapping("/actors/assign")
+    @ApiOperation("Assign actors to movies, already existing pairs are skipped")
+    @Secured({"ROLE_ADMIN", "ROLE_EDITOR"})
+    public ResponseEntity<AssignResultDto> assignActors(@RequestBody @Valid List<MovieActorLinkDto> dto){
+        checkAssignmentCount(dto.size());
+        try {
+            int assigned = movieService.assignActors(dto.stream()
+                    .map(link -> new MovieLink(link.getMovieId(), link.getActorId()))
+                    .collect(Collectors.toList()));
+            return ResponseEntity.ok(new AssignResultDto(dto.size(), assigned));
+        }catch (NotFoundException e){
+            throw new ControllerException(e.getMessage(), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @PostMapping("/genres/assign")
+    @ApiOperation("Assign genres to movies, already existing pairs are skipped")
+    @Secured({"ROLE_ADMIN", "ROLE_EDITOR"})
+    public ResponseEntity<AssignResultDto> assignGenres(@RequestBody @Valid List<MovieGenreLinkDto> dto){
+        checkAssignmentCount(dto.size());
+        try {
+            int assigned = movieService.assignGenres(dto.stream()
+                    .map(link -> new MovieLink(link.getMovieId(), link.getGenreId()))
+                    .collect(Collectors.toList()));
+            return ResponseEntity.ok(new AssignResultDto(dto.size(), assigned));
+        }catch (NotFoundException e){
+            throw new ControllerException(e.getMessage(), HttpStatus.NOT_FOUND);
+        }
     }
 
     @GetMapping("/movie/actor/{id}")
@@ -137,4 +220,13 @@ public class MovieController {
         return movieService.findDirectorWithMovies();
     }
 
+    private static void checkAssignmentCount(int count){
+        if (count > MovieService.MAX_ASSIGNMENTS){
+            throw new ControllerException(
+                    String.format("No more than %s pairs can be assigned at once", MovieService.MAX_ASSIGNMENTS),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+    }
+
 }
@@ -0,0 +1,127 @@
+package ru.demichev.movies.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// read-only transactions go to a healthy replica, everything else to the primary;
+// wrap it into LazyConnectionDataSourceProxy so the read-only flag is known when the connection is taken
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration retryInterval;
+    private final Supplier<String> currentUser;
+    private final Cache<String, Boolean> recentWriters;
+    private final Clock clock;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadReplicaRoutingDataSource(DataSource primary,
+                                        List<DataSource> replicas,
+                                        Duration retryInterval,
+                                        Duration readYourWritesWindow,
+                                        Supplier<String> currentUser,
+                                        Clock clock) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).collect(Collectors.toList());
+        this.retryInterval = retryInterval;
+        this.currentUser = currentUser;
+        this.recentWriters = readYourWritesWindow.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        this.clock = clock;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(username, password);
+    }
+
+    private Connection route(String username, String password) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()){
+            if (TransactionSynchronizationManager.isActualTransactionActive()){
+                rememberWriter();
+            }
+            return connect(primary, username, password);
+        }
+        if (readsOwnWrites()){
+            return connect(primary, username, password);
+        }
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++){
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isAvailable(clock.millis())){
+                continue;
+            }
+            try {
+                return connect(replica.dataSource, username, password);
+            } catch (SQLException | RuntimeException e){
+                // a pool that failed to start throws HikariPool.PoolInitializationException, not SQLException
+                replica.markDown(clock.millis() + retryInterval.toMillis());
+                log.warn("Replica {} is unavailable, retrying it in {}", replica.dataSource, retryInterval, e);
+            }
+        }
+        return connect(primary, username, password);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas){
+            if (replica.dataSource instanceof Closeable closeable){
+                closeable.close();
+            }
+        }
+    }
+
+    private void rememberWriter(){
+        String user = recentWriters != null ? currentUser.get() : null;
+        if (user != null){
+            recentWriters.put(user, Boolean.TRUE);
+        }
+    }
+
+    private boolean readsOwnWrites(){
+        String user = recentWriters != null ? currentUser.get() : null;
+        return user != null && recentWriters.getIfPresent(user) != null;
+    }
+
+    private static Connection connect(DataSource dataSource, String username, String password) throws SQLException {
+        return username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private volatile long downUntil;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private boolean isAvailable(long now){
+            return now >= downUntil;
+        }
+
+        private void markDown(long until){
+            downUntil = until;
+        }
+    }
+}
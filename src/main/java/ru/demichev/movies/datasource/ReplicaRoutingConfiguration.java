@@ -0,0 +1,77 @@
+package ru.demichev.movies.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Configuration
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(name = "movies.datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties){
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                 DataSourceProperties dataSourceProperties,
+                                                                 ReplicaRoutingProperties routingProperties){
+        List<DataSource> replicas = routingProperties.getReplicas()
+                .stream()
+                .map(replica -> replicaDataSource(replica, dataSourceProperties, routingProperties))
+                .collect(Collectors.toList());
+        return new ReadReplicaRoutingDataSource(
+                primaryDataSource,
+                replicas,
+                routingProperties.getRetryInterval(),
+                routingProperties.getReadYourWritesWindow(),
+                ReplicaRoutingConfiguration::currentUser,
+                Clock.systemUTC()
+        );
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource replicaRoutingDataSource){
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private static DataSource replicaDataSource(ReplicaRoutingProperties.Replica replica,
+                                                DataSourceProperties dataSourceProperties,
+                                                ReplicaRoutingProperties routingProperties){
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(dataSourceProperties.determineDriverClassName())
+                .url(replica.getUrl())
+                .username(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername())
+                .password(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword())
+                .build();
+        // a replica that is down at startup must not fail the application, and a dead one must not
+        // hold read requests for the default 30 seconds before they fall back to the primary
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setConnectionTimeout(routingProperties.getReplicaConnectionTimeout().toMillis());
+        return dataSource;
+    }
+
+    private static String currentUser(){
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
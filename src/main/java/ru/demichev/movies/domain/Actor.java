@@ -20,7 +20,8 @@ public class Actor {
 
     @Id
     @Column(name="actor_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "actor_seq")
+    @SequenceGenerator(name = "actor_seq", schema = "movies", sequenceName = "actor_actor_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "first_name")
@@ -21,7 +21,8 @@ public class Movie {
 
     @Id
     @Column(name="movie_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movie_seq")
+    @SequenceGenerator(name = "movie_seq", schema = "movies", sequenceName = "movie_movie_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name="movie_title")
@@ -34,6 +35,9 @@ public class Movie {
     @Column(name="description")
     private String description;
 
+    @Column(name="rating")
+    private Integer rating;
+
     @JsonIgnore
     @ManyToMany(mappedBy = "movies")
     private Set<Actor> actors;
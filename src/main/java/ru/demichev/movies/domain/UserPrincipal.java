@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -23,7 +25,8 @@ public class UserPrincipal implements UserDetails{
 
     @Id
     @Column(name="user_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", schema = "movies", sequenceName = "user_user_id_seq", allocationSize = 50)
     private Long id;
     @Column(name="login")
     private String login;
@@ -42,6 +45,7 @@ public class UserPrincipal implements UserDetails{
     @Column(name="credentials_expired")
     private boolean credentialsExpired;
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-roles")
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "users_user_id"),
             inverseJoinColumns = @JoinColumn(name = "roles_role_id"))
@@ -0,0 +1,13 @@
+package ru.demichev.movies.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AssignResultDto {
+    private int requested;
+    private int assigned;
+}
@@ -0,0 +1,19 @@
+package ru.demichev.movies.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GenreBulkResultDto {
+    private String name;
+    private Status status;
+    private Long id;
+
+    public enum Status {
+        CREATED,
+        CONFLICT
+    }
+}
@@ -0,0 +1,27 @@
+package ru.demichev.movies.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportResultDto {
+    public static final int MAX_ERRORS = 100;
+
+    private long processed;
+    private long imported;
+    private long failed;
+    private List<ImportErrorDto> errors = new ArrayList<>();
+
+    public void addError(long line, String message){
+        failed++;
+        if (errors.size() < MAX_ERRORS){
+            errors.add(new ImportErrorDto(line, message));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.demichev.movies.dto;
+
+public interface MovieDirectorView {
+    String getTitle();
+    String getFirstName();
+    String getLastName();
+}
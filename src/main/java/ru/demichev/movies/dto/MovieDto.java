@@ -14,6 +14,7 @@ public class MovieDto {
     private String title;
     private Integer year;
     private String description;
+    private Integer rating;
     private String director;
     private Set<String> actors;
     private Set<String> genres;
@@ -21,4 +22,10 @@ public class MovieDto {
         this.id = id;
         this.title = title;
     }
+
+    public MovieDto(Long id, String title, Integer rating){
+        this.id = id;
+        this.title = title;
+        this.rating = rating;
+    }
 }
@@ -0,0 +1,17 @@
+package ru.demichev.movies.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NameDto {
+    private Long id;
+    private String name;
+
+    public static NameDto of(NameView view){
+        return new NameDto(view.getId(), view.getName());
+    }
+}
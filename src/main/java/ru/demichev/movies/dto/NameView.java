@@ -0,0 +1,6 @@
+package ru.demichev.movies.dto;
+
+public interface NameView {
+    Long getId();
+    String getName();
+}
@@ -0,0 +1,24 @@
+package ru.demichev.movies.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageDto<T> {
+    private List<T> items;
+    private String next;
+
+    public static <E, T> PageDto<T> of(Slice<E> slice, Function<E, T> mapper, Function<E, String> cursor){
+        List<E> content = slice.getContent();
+        String next = slice.hasNext() && !content.isEmpty() ? cursor.apply(content.get(content.size() - 1)) : null;
+        return new PageDto<>(content.stream().map(mapper).collect(Collectors.toList()), next);
+    }
+}
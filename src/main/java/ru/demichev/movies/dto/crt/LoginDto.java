@@ -0,0 +1,17 @@
+package ru.demichev.movies.dto.crt;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginDto {
+    @NotBlank(message = "Login cant be null")
+    private String login;
+    @NotBlank(message = "Password cant be null")
+    private String password;
+}
@@ -0,0 +1,17 @@
+package ru.demichev.movies.dto.crt;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieActorLinkDto {
+    @NotNull(message = "Movie id cant be null")
+    private Long movieId;
+    @NotNull(message = "Actor id cant be null")
+    private Long actorId;
+}
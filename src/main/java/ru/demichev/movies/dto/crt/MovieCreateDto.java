@@ -20,5 +20,7 @@ public class MovieCreateDto {
     private Integer year;
     private String description;
     private Long directorId;
+    @Min(value = 0, message = "Movie rating can't be negative")
+    private Integer rating;
 
 }
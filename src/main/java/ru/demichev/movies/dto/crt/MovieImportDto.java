@@ -0,0 +1,34 @@
+package ru.demichev.movies.dto.crt;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieImportDto {
+
+    @NotBlank(message = "Movie Title can't be null")
+    @Size(max = 255, message = "Movie Title is too long")
+    private String title;
+    @Min(value=1980, message = "Only new movies")
+    @NotNull(message = "Movie year can't be null")
+    private Integer year;
+    private String description;
+    @Min(value = 0, message = "Movie rating can't be negative")
+    private Integer rating;
+    @Valid
+    @NotNull(message = "Movie director can't be null")
+    private PersonImportDto director;
+    private List<@Valid PersonImportDto> actors = new ArrayList<>();
+    private List<@NotBlank(message = "Genre name can't be blank") String> genres = new ArrayList<>();
+}
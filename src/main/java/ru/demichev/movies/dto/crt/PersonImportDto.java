@@ -0,0 +1,21 @@
+package ru.demichev.movies.dto.crt;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PersonImportDto {
+    @NotBlank(message = "First Name can't be null")
+    private String firstName;
+    private String secondName;
+    @NotBlank(message = "Last Name can't be null")
+    private String lastName;
+    @NotNull(message = "Year of birth can't be null")
+    private Integer yearOfBirth;
+}
@@ -4,8 +4,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import ru.demichev.movies.dto.FieldValidationErrorDto;
 import ru.demichev.movies.dto.RequestValidationErrorDto;
 
@@ -37,6 +39,15 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler({MethodArgumentTypeMismatchException.class, MissingServletRequestParameterException.class})
+    public ResponseEntity<ErrorResponse> handleBadRequestParameter(Exception e) {
+        log.warn("Bad request parameter: {}", e.getMessage());
+        return new ResponseEntity<>(
+                new ErrorResponse(HttpStatus.BAD_REQUEST.toString(), e.getMessage()),
+                HttpStatus.BAD_REQUEST
+        );
+    }
+
     @ExceptionHandler
     public ResponseEntity<ErrorResponse> handleException(
             Exception e
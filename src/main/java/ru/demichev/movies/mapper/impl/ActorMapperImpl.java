@@ -1,7 +1,6 @@
 package ru.demichev.movies.mapper.impl;
 
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import ru.demichev.movies.domain.Actor;
 import ru.demichev.movies.domain.Movie;
 import ru.demichev.movies.dto.crt.ActorCreateDto;
@@ -12,7 +11,6 @@ import java.util.HashSet;
 import java.util.stream.Collectors;
 
 @Component
-@Transactional
 public class ActorMapperImpl implements ActorMapper {
     @Override
     public ActorDto toDto(Actor source) {
@@ -1,7 +1,6 @@
 package ru.demichev.movies.mapper.impl;
 
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import ru.demichev.movies.domain.Genre;
 import ru.demichev.movies.domain.Movie;
 import ru.demichev.movies.dto.MovieDto;
@@ -13,7 +12,6 @@ import java.util.HashSet;
 import java.util.stream.Collectors;
 
 @Component
-@Transactional(readOnly = true)
 public class MovieMapperImpl implements MovieMapper {
     private final DirectorRepository directorRepository;
 
@@ -32,6 +30,7 @@ public class MovieMapperImpl implements MovieMapper {
         movieDto.setTitle(source.getTitle());
         movieDto.setDescription(source.getDescription());
         movieDto.setYear(source.getYear());
+        movieDto.setRating(source.getRating());
         movieDto.setDirector(source.getDirector() != null ? source.getDirector().getLastName() : "");
         movieDto.setActors(source.getActors() != null ? source.getActors().stream().map(Actor -> Actor.getFirstName() + " " + Actor.getLastName()).collect(Collectors.toSet()) : new HashSet<>());
         movieDto.setGenres(source.getGenres() != null ? source.getGenres().stream().map(Genre::getName).collect(Collectors.toSet()) : new HashSet<>());
@@ -49,6 +48,6 @@ public class MovieMapperImpl implements MovieMapper {
                 source.getDescription(),
                 source.getYear(),
                 directorRepository.getReferenceById(source.getDirectorId())
-        );
+        ).withRating(source.getRating());
     }
 }
@@ -4,7 +4,6 @@ package ru.demichev.movies.mapper.impl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import ru.demichev.movies.domain.Role;
 import ru.demichev.movies.domain.UserPrincipal;
 import ru.demichev.movies.dto.crt.UserCreateDto;
@@ -16,7 +15,6 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @Component
-@Transactional(readOnly = true)
 public class UserMapperImpl implements UserMapper {
 
     @Autowired
@@ -0,0 +1,32 @@
+package ru.demichev.movies.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+// remembers which repository method the current thread is in, so SQL can be traced back to it
+public final class RepositoryInvocations {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RepositoryInvocations() {
+    }
+
+    public static String current(){
+        return CURRENT.get();
+    }
+
+    static MethodInterceptor interceptor(Class<?> repositoryInterface){
+        return (MethodInvocation invocation) -> {
+            String previous = CURRENT.get();
+            CURRENT.set(repositoryInterface.getSimpleName() + "." + invocation.getMethod().getName());
+            try {
+                return invocation.proceed();
+            } finally {
+                if (previous == null){
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+}
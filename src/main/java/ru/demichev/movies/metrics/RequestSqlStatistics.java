@@ -0,0 +1,38 @@
+package ru.demichev.movies.metrics;
+
+public final class RequestSqlStatistics {
+    private static final ThreadLocal<RequestSqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+
+    private RequestSqlStatistics() {
+    }
+
+    public static RequestSqlStatistics start(){
+        RequestSqlStatistics statistics = new RequestSqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static RequestSqlStatistics current(){
+        return CURRENT.get();
+    }
+
+    public static void stop(){
+        CURRENT.remove();
+    }
+
+    void record(long elapsedNanos){
+        statements++;
+        nanos += elapsedNanos;
+    }
+
+    public int getStatements(){
+        return statements;
+    }
+
+    public long getNanos(){
+        return nanos;
+    }
+}
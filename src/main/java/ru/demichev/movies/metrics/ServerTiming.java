@@ -0,0 +1,15 @@
+package ru.demichev.movies.metrics;
+
+import java.util.Locale;
+
+final class ServerTiming {
+    static final String HEADER = "Server-Timing";
+
+    private ServerTiming() {
+    }
+
+    static String format(RequestSqlStatistics statistics, long requestNanos){
+        return String.format(Locale.ROOT, "sql;desc=\"%d statements\";dur=%.1f, app;dur=%.1f",
+                statistics.getStatements(), statistics.getNanos() / 1e6, requestNanos / 1e6);
+    }
+}
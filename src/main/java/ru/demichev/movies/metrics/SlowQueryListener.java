@@ -0,0 +1,78 @@
+package ru.demichev.movies.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SlowQueryListener implements QueryExecutionListener {
+    private static final int MAX_PARAMETER_SETS = 10;
+    private static final int MAX_VALUE_LENGTH = 100;
+    private static final String APPLICATION_PACKAGE = "ru.demichev.movies.";
+    private static final String METRICS_PACKAGE = SlowQueryListener.class.getPackageName() + ".";
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryListener(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        boolean slow = slowQueryLog.isSlow(execInfo.getElapsedTime());
+        if (!slow && !slowQueryLog.isSampled()){
+            return;
+        }
+        slowQueryLog.offer(new SlowQueryLog.Entry(
+                slow,
+                execInfo.getElapsedTime(),
+                caller(),
+                queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")),
+                slowQueryLog.isLoggingParameters() ? parameters(queryInfoList) : null
+        ));
+    }
+
+    private static String caller(){
+        String repositoryMethod = RepositoryInvocations.current();
+        if (repositoryMethod != null){
+            return repositoryMethod;
+        }
+        return StackWalker.getInstance()
+                .walk(frames -> frames
+                        .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                                && !frame.getClassName().startsWith(METRICS_PACKAGE))
+                        .findFirst()
+                        .map(frame -> frame.getClassName().substring(APPLICATION_PACKAGE.length()) + "." + frame.getMethodName())
+                        .orElse("unknown"));
+    }
+
+    private static List<List<Object>> parameters(List<QueryInfo> queryInfoList){
+        List<List<Object>> parameters = new ArrayList<>();
+        for (QueryInfo queryInfo : queryInfoList){
+            for (List<ParameterSetOperation> operations : queryInfo.getParametersList()){
+                if (parameters.size() == MAX_PARAMETER_SETS){
+                    return parameters;
+                }
+                parameters.add(operations.stream()
+                        .map(operation -> truncate(operation.getArgs().length > 1 ? operation.getArgs()[1] : null))
+                        .collect(Collectors.toList()));
+            }
+        }
+        return parameters;
+    }
+
+    private static Object truncate(Object value){
+        if (value instanceof String string && string.length() > MAX_VALUE_LENGTH){
+            return string.substring(0, MAX_VALUE_LENGTH) + "...";
+        }
+        return value;
+    }
+}
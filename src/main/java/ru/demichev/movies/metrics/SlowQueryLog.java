@@ -0,0 +1,105 @@
+package ru.demichev.movies.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// request threads only offer to a bounded queue, a single background thread does the actual logging
+@Slf4j
+@Component
+public class SlowQueryLog implements MeterBinder, DisposableBean {
+    private final long thresholdMillis;
+    private final double sampleRate;
+    private final BlockingQueue<Entry> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+
+    @Autowired
+    public SlowQueryLog(@Value("${movies.sql.slow-query.threshold:PT0.2S}") Duration threshold,
+                        @Value("${movies.sql.slow-query.sample-rate:0}") double sampleRate,
+                        @Value("${movies.sql.slow-query.queue-capacity:10000}") int queueCapacity) {
+        this(threshold, sampleRate, queueCapacity, runnable -> new Thread(runnable, "slow-query-log"));
+    }
+
+    SlowQueryLog(Duration threshold, double sampleRate, int queueCapacity, ThreadFactory threadFactory) {
+        this.thresholdMillis = threshold.toMillis();
+        this.sampleRate = sampleRate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = threadFactory.newThread(this::drain);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    boolean isSlow(long elapsedMillis){
+        return elapsedMillis >= thresholdMillis;
+    }
+
+    boolean isSampled(){
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    // bind values may hold password hashes or personal data, so they are only captured for DEBUG
+    boolean isLoggingParameters(){
+        return log.isDebugEnabled();
+    }
+
+    void offer(Entry entry){
+        if (!queue.offer(entry)){
+            dropped.incrementAndGet();
+        }
+    }
+
+    long getDropped(){
+        return dropped.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sql.slow_query.dropped", dropped, AtomicLong::get)
+                .description("Slow query log entries dropped because the buffer was full")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        writer.interrupt();
+    }
+
+    private void drain(){
+        try {
+            while (!Thread.currentThread().isInterrupted()){
+                write(queue.take());
+            }
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        Entry entry;
+        while ((entry = queue.poll()) != null){
+            write(entry);
+        }
+    }
+
+    private void write(Entry entry){
+        log.info("{} query {} ms in {}: {}",
+                entry.slow() ? "Slow" : "Sampled", entry.elapsedMillis(), entry.caller(), entry.query());
+        if (entry.parameters() != null){
+            log.debug("Parameters of the query above: {}", entry.parameters());
+        }
+    }
+
+    record Entry(boolean slow, long elapsedMillis, String caller, String query, List<List<Object>> parameters) {
+    }
+}
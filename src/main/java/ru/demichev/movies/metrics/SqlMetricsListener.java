@@ -0,0 +1,28 @@
+package ru.demichev.movies.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+public class SqlMetricsListener implements QueryExecutionListener {
+    private final ThreadLocal<Long> startedAt = new ThreadLocal<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (RequestSqlStatistics.current() != null){
+            startedAt.set(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long started = startedAt.get();
+        RequestSqlStatistics statistics = RequestSqlStatistics.current();
+        if (started != null && statistics != null){
+            statistics.record(System.nanoTime() - started);
+        }
+        startedAt.remove();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.demichev.movies.paging;
+
+import org.springframework.http.HttpStatus;
+import ru.demichev.movies.exceptions.ControllerException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class KeysetCursor {
+    public static final String DEFAULT_LIMIT = "50";
+    public static final int MAX_LIMIT = 1000;
+
+    private static final String SEPARATOR = ":";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(Long id){
+        return encodeRaw(String.valueOf(id));
+    }
+
+    public static String encode(Long id, String name){
+        return encodeRaw(id + SEPARATOR + name);
+    }
+
+    public static Long decodeId(String cursor){
+        if (cursor == null || cursor.isBlank()){
+            return null;
+        }
+        try {
+            return Long.parseLong(decodeRaw(cursor));
+        } catch (IllegalArgumentException e){
+            throw invalid(cursor);
+        }
+    }
+
+    public static Position decodeIdAndName(String cursor){
+        if (cursor == null || cursor.isBlank()){
+            return null;
+        }
+        try {
+            String[] parts = decodeRaw(cursor).split(SEPARATOR, 2);
+            if (parts.length != 2){
+                throw invalid(cursor);
+            }
+            return new Position(Long.parseLong(parts[0]), parts[1]);
+        } catch (IllegalArgumentException e){
+            throw invalid(cursor);
+        }
+    }
+
+    public static int checkLimit(int limit){
+        if (limit < 1 || limit > MAX_LIMIT){
+            throw new ControllerException(
+                    String.format("Limit must be between 1 and %s", MAX_LIMIT),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        return limit;
+    }
+
+    private static String encodeRaw(String value){
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeRaw(String cursor){
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    private static ControllerException invalid(String cursor){
+        return new ControllerException(String.format("Cursor '%s' is invalid", cursor), HttpStatus.BAD_REQUEST);
+    }
+
+    public record Position(Long id, String name) {
+    }
+}
@@ -1,18 +1,35 @@
 package ru.demichev.movies.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.demichev.movies.domain.Actor;
 import ru.demichev.movies.dto.ActorDto;
+import ru.demichev.movies.dto.NameView;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 @Repository
-public interface ActorRepository extends JpaRepository<Actor, Long> {
-    @Query(value = "from Actor a where a.id not in ( select a.id from Actor a left join a.movies m where m.id = :movie_id)")
-    List<Actor> findActorNotAssignedToMovie(@Param("movie_id") long movieId);
+public interface ActorRepository extends JpaRepository<Actor, Long>, CustomActorRepository {
+    @Query(value = "select a.actor_id as id, a.last_name || ' ' || a.first_name || coalesce(' ' || a.second_name, '') as name " +
+            "from movies.actor a " +
+            "where a.actor_id > :after_id " +
+            "and lower(a.last_name) like :prefix escape '\\' " +
+            "and not exists (select 1 from movies.actor_movies am " +
+            "where am.actors_actor_id = a.actor_id and am.movies_movie_id = :movie_id) " +
+            "order by a.actor_id limit :limit", nativeQuery = true)
+    List<NameView> findActorNamesNotAssignedToMovie(@Param("movie_id") long movieId,
+                                                    @Param("prefix") String prefix,
+                                                    @Param("after_id") long afterId,
+                                                    @Param("limit") int limit);
 
     @Query(value = "from Actor a where a.id in (select a.id from Actor a left join a.movies m where m.id = :movie_id)")
     List<Actor> findActorAssignedToMovie(@Param("movie_id") long movieId);
@@ -25,4 +42,29 @@ public interface ActorRepository extends JpaRepository<Actor, Long> {
     Boolean existsByFirstNameAndSecondNameAndLastNameAndYearOfBirth(String firstName, String secondName, String LastName, int year);
 
     Optional<Actor> findActorByFirstNameAndSecondNameAndLastNameAndYearOfBirth(String firstName, String secondName, String LastName, int year);
+
+    Slice<Actor> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query(value = "select a.actor_id as id, a.last_name || ' ' || a.first_name || coalesce(' ' || a.second_name, '') as name " +
+            "from movies.actor a " +
+            "where lower(a.last_name || ' ' || a.first_name || ' ' || coalesce(a.second_name, '')) like :pattern escape '\\' " +
+            "order by a.actor_id limit :limit", nativeQuery = true)
+    List<NameView> searchNames(@Param("pattern") String pattern, @Param("limit") int limit);
+
+    @EntityGraph(attributePaths = "movies")
+    Optional<Actor> findWithMoviesById(Long id);
+
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query(value = "select distinct a from Actor a left join fetch a.movies where a.id in :ids")
+    List<Actor> fetchMovies(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "select e.id from Actor e where e.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query(value = "from Actor a order by a.id")
+    Stream<Actor> streamAll();
 }
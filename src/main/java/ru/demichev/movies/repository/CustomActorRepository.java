@@ -0,0 +1,7 @@
+package ru.demichev.movies.repository;
+
+import ru.demichev.movies.domain.Actor;
+
+public interface CustomActorRepository {
+    UpsertResult upsert(Actor actor);
+}
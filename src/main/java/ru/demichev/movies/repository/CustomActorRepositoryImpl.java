@@ -0,0 +1,38 @@
+package ru.demichev.movies.repository;
+
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.demichev.movies.domain.Actor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+@Repository
+@Transactional
+public class CustomActorRepositoryImpl implements CustomActorRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public UpsertResult upsert(Actor actor) {
+        NativeQuery<?> query = entityManager.createNativeQuery(
+                        """
+                         insert into movies.actor as a (actor_id, first_name, second_name, last_name, year_of_birth, biography, country)
+                         values (nextval('movies.actor_actor_id_seq'), :firstName, :secondName, :lastName, :yearOfBirth, :biography, :country)
+                         on conflict (first_name, coalesce(second_name, ''), last_name, coalesce(year_of_birth, -1))
+                         do update set biography = excluded.biography, country = excluded.country
+                         returning a.actor_id as id, a.xmax = 0 as created""")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Actor.class)
+                .setParameter("firstName", actor.getFirstName(), StandardBasicTypes.STRING)
+                .setParameter("secondName", actor.getSecondName(), StandardBasicTypes.STRING)
+                .setParameter("lastName", actor.getLastName(), StandardBasicTypes.STRING)
+                .setParameter("yearOfBirth", actor.getYearOfBirth(), StandardBasicTypes.INTEGER)
+                .setParameter("biography", actor.getBiography(), StandardBasicTypes.TEXT)
+                .setParameter("country", actor.getCountry(), StandardBasicTypes.STRING);
+        return Upserts.execute(query).orElseThrow();
+    }
+}
@@ -0,0 +1,7 @@
+package ru.demichev.movies.repository;
+
+import ru.demichev.movies.domain.Director;
+
+public interface CustomDirectorRepository {
+    UpsertResult upsert(Director director);
+}
@@ -0,0 +1,58 @@
+package ru.demichev.movies.repository;
+
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.demichev.movies.domain.Director;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+@Repository
+@Transactional
+public class CustomDirectorRepositoryImpl implements CustomDirectorRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public UpsertResult upsert(Director director) {
+        NativeQuery<?> query = entityManager.createNativeQuery(
+                        """
+                         insert into movies.director as d (director_id, first_name, second_name, last_name, year_of_birth, biography, country)
+                         values (nextval('movies.director_director_id_seq'), :firstName, :secondName, :lastName, :yearOfBirth, :biography, :country)
+                         on conflict (first_name, coalesce(second_name, ''), last_name, coalesce(year_of_birth, -1))
+                         do update set biography = excluded.biography, country = excluded.country
+                         returning d.director_id as id, d.xmax = 0 as created""")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Director.class)
+                .setParameter("firstName", director.getFirstName(), StandardBasicTypes.STRING)
+                .setParameter("secondName", director.getSecondName(), StandardBasicTypes.STRING)
+                .setParameter("lastName", director.getLastName(), StandardBasicTypes.STRING)
+                .setParameter("yearOfBirth", director.getYearOfBirth(), StandardBasicTypes.INTEGER)
+                .setParameter("biography", director.getBiography(), StandardBasicTypes.TEXT)
+                .setParameter("country", director.getCountry(), StandardBasicTypes.STRING);
+        UpsertResult result = Upserts.execute(query).orElseThrow();
+        if (!result.created()){
+            evict(result.id());
+        }
+        return result;
+    }
+
+    // the row changed behind Hibernate's back: evict now so the upsert reads it back fresh,
+    // and again after commit in case a concurrent reader cached the old row in between
+    private void evict(Long id){
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(Director.class, id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(Director.class, id);
+            }
+        });
+    }
+}
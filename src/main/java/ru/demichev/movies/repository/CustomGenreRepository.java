@@ -4,7 +4,9 @@ import ru.demichev.movies.dto.GenreDto;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface CustomGenreRepository {
     List<GenreDto> findGenreWithMovie(Collection<Long> genreIds, int topMoviesCount);
+    Map<String, Long> insertSkippingExisting(List<String> names);
 }
@@ -1,8 +1,13 @@
 package ru.demichev.movies.repository;
 
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.demichev.movies.domain.Genre;
 import ru.demichev.movies.dto.GenreDto;
 import ru.demichev.movies.dto.MovieDto;
 
@@ -21,39 +26,97 @@ public class CustomGenreRepositoryImpl implements CustomGenreRepository{
 
 
     @Override
+    @SuppressWarnings("unchecked")
     public List<GenreDto> findGenreWithMovie(Collection<Long> genreIds, int topMoviesCount) {
         log.info("genreId - {}", genreIds);
+        if (genreIds.isEmpty()){
+            return new ArrayList<>();
+        }
         List<Tuple> tuples = entityManager.createNativeQuery(
                         """
-                         select * from (
-                         (select g.id as genre_id, 
-                         g.name as genre_name, 
-                         m.id as movie_id, 
-                         m.name as movie_name, 
-                         m.rating as movie_rating, 
-                         row_number() over (
-                             partition by genre_id 
-                             order by movie_rating desc
-                         ) as rn 
-                         from Genre g 
-                         where g.id in (:genreIds) 
-                         left join g.movies m where m.id = g.id) sub 
-                         where sub.rn <= :topMoviesCount""",
+                         select g.genre_id as genre_id,
+                         g.name as genre_name,
+                         top.movie_id as movie_id,
+                         top.movie_title as movie_title,
+                         top.rating as movie_rating
+                         from movies.genre g
+                         left join lateral (
+                             select m.movie_id, m.movie_title, m.rating
+                             from movies.genre_movies gm
+                             join movies.movie m on m.movie_id = gm.movies_movie_id
+                             where gm.genres_genre_id = g.genre_id
+                             order by m.rating desc nulls last, m.movie_id
+                             limit :topMoviesCount
+                         ) top on true
+                         where g.genre_id = any(:genreIds)
+                         order by g.genre_id, top.rating desc nulls last, top.movie_id""",
                         Tuple.class
-                ).setParameter("genreIds", genreIds)
+                ).unwrap(NativeQuery.class)
+                .setParameter("genreIds", SqlArrays.of(genreIds), SqlArrays.BIGINT_ARRAY)
                 .setParameter("topMoviesCount", topMoviesCount)
                 .getResultList();
 
-        Map<Long, GenreDto> genres = new HashMap<>();
+        return groupByGenre(tuples);
+    }
+
+    // names taken by committed or concurrent inserts are skipped by the unique index on lower(name) instead of failing
+    // the statement; rows come back in input order, so of two spellings of one name the first one wins
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public Map<String, Long> insertSkippingExisting(List<String> names) {
+        if (names.isEmpty()){
+            return new HashMap<>();
+        }
+        List<Object[]> rows = entityManager.createNativeQuery(
+                        """
+                         insert into movies.genre (genre_id, name)
+                         select nextval('movies.genre_genre_id_seq'), n.name
+                         from unnest(:names) with ordinality as n(name, position)
+                         order by n.position
+                         on conflict do nothing
+                         returning genre_id, name"""
+                ).unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Genre.class)
+                .setParameter("names", names.toArray(String[]::new), SqlArrays.TEXT_ARRAY)
+                .getResultList();
+        Map<String, Long> created = new HashMap<>();
+        for (Object[] row : rows){
+            created.put((String) row[1], ((Number) row[0]).longValue());
+        }
+        if (!created.isEmpty()){
+            evictQueryCacheAfterCommit();
+        }
+        return created;
+    }
+
+    // the native insert does not touch the query cache timestamps, so cached genre queries would not see the new rows
+    private void evictQueryCacheAfterCommit(){
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sessionFactory.getCache().evictDefaultQueryRegion();
+            }
+        });
+    }
+
+    static List<GenreDto> groupByGenre(List<Tuple> tuples){
+        Map<Long, GenreDto> genres = new LinkedHashMap<>();
         for (Tuple tuple : tuples){
-            Long genreId = tuple.get("genre_id", Long.class);
+            Long genreId = tuple.get("genre_id", Number.class).longValue();
             GenreDto genreDto = genres.computeIfAbsent(
                     genreId,
-                    k-> new GenreDto(genreId, tuple.get("genre_name", String.class), new HashSet<>())
+                    k-> new GenreDto(genreId, tuple.get("genre_name", String.class), new LinkedHashSet<>())
             );
-            Long movieId = tuple.get("movie_id", Long.class);
+            Number movieId = tuple.get("movie_id", Number.class);
             if (movieId != null){
-                genreDto.getMovies().add(new MovieDto(movieId, tuple.get("movie_title", String.class)));
+                Number rating = tuple.get("movie_rating", Number.class);
+                genreDto.getMovies().add(new MovieDto(
+                        movieId.longValue(),
+                        tuple.get("movie_title", String.class),
+                        rating != null ? rating.intValue() : null
+                ));
             }
         }
 
@@ -0,0 +1,16 @@
+package ru.demichev.movies.repository;
+
+import ru.demichev.movies.domain.Movie;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CustomMovieRepository {
+    List<Long> searchIds(String query, int offset, int limit);
+
+    int assignActors(List<MovieLink> links);
+
+    int assignGenres(List<MovieLink> links);
+
+    Optional<UpsertResult> upsert(Movie movie);
+}
@@ -0,0 +1,132 @@
+package ru.demichev.movies.repository;
+
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.demichev.movies.domain.Movie;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Repository
+@Transactional(readOnly = true)
+public class CustomMovieRepositoryImpl implements CustomMovieRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final int LINK_CHUNK_SIZE = 1000;
+
+    private volatile Boolean postgres;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> searchIds(String query, int offset, int limit) {
+        List<Number> ids;
+        if (isPostgres()){
+            ids = entityManager.createNativeQuery(
+                            """
+                             select m.movie_id
+                             from movies.movie m, websearch_to_tsquery('russian', :query) q
+                             where m.search_vector @@ q
+                             order by ts_rank(m.search_vector, q) desc, m.movie_id
+                             limit :limit offset :offset""")
+                    .setParameter("query", query)
+                    .setParameter("limit", limit)
+                    .setParameter("offset", offset)
+                    .getResultList();
+        } else {
+            ids = entityManager.createNativeQuery(
+                            """
+                             select m.movie_id
+                             from movies.movie m
+                             where lower(m.movie_title) like :pattern escape '\\'
+                             or lower(m.description) like :pattern escape '\\'
+                             order by case when lower(m.movie_title) like :pattern escape '\\' then 0 else 1 end, m.movie_id
+                             limit :limit offset :offset""")
+                    .setParameter("pattern", SearchPatterns.contains(query))
+                    .setParameter("limit", limit)
+                    .setParameter("offset", offset)
+                    .getResultList();
+        }
+        return ids.stream().map(Number::longValue).collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public int assignActors(List<MovieLink> links) {
+        return insertLinks(
+                "movies.actor_movies",
+                """
+                 insert into movies.actor_movies (actors_actor_id, movies_movie_id)
+                 select distinct l.linked_id, l.movie_id
+                 from unnest(:linkedIds, :movieIds) as l(linked_id, movie_id)
+                 on conflict do nothing""",
+                links);
+    }
+
+    @Override
+    @Transactional
+    public int assignGenres(List<MovieLink> links) {
+        return insertLinks(
+                "movies.genre_movies",
+                """
+                 insert into movies.genre_movies (genres_genre_id, movies_movie_id)
+                 select distinct l.linked_id, l.movie_id
+                 from unnest(:linkedIds, :movieIds) as l(linked_id, movie_id)
+                 on conflict do nothing""",
+                links);
+    }
+
+    // selecting the director instead of a plain values list means a missing director yields no row rather than an FK error
+    @Override
+    @Transactional
+    public Optional<UpsertResult> upsert(Movie movie) {
+        NativeQuery<?> query = entityManager.createNativeQuery(
+                        """
+                         insert into movies.movie as m (movie_id, movie_title, movie_year, description, rating, director_id)
+                         select nextval('movies.movie_movie_id_seq'), :title, :year, :description, :rating, d.director_id
+                         from movies.director d
+                         where d.director_id = :directorId
+                         on conflict (movie_title, coalesce(movie_year, -1))
+                         do update set description = excluded.description, rating = excluded.rating, director_id = excluded.director_id
+                         returning m.movie_id as id, m.xmax = 0 as created""")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Movie.class)
+                .setParameter("title", movie.getTitle(), StandardBasicTypes.STRING)
+                .setParameter("year", movie.getYear(), StandardBasicTypes.INTEGER)
+                .setParameter("description", movie.getDescription(), StandardBasicTypes.TEXT)
+                .setParameter("rating", movie.getRating(), StandardBasicTypes.INTEGER)
+                .setParameter("directorId", movie.getDirector().getId(), StandardBasicTypes.LONG);
+        return Upserts.execute(query);
+    }
+
+    // without a query space Hibernate treats native DML as touching every table and clears the whole second-level cache
+    private int insertLinks(String table, String sql, List<MovieLink> links){
+        int inserted = 0;
+        for (int from = 0; from < links.size(); from += LINK_CHUNK_SIZE){
+            List<MovieLink> chunk = links.subList(from, Math.min(from + LINK_CHUNK_SIZE, links.size()));
+            inserted += entityManager.createNativeQuery(sql)
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace(table)
+                    .setParameter("linkedIds", SqlArrays.of(chunk.stream().map(MovieLink::linkedId).collect(Collectors.toList())), SqlArrays.BIGINT_ARRAY)
+                    .setParameter("movieIds", SqlArrays.of(chunk.stream().map(MovieLink::movieId).collect(Collectors.toList())), SqlArrays.BIGINT_ARRAY)
+                    .executeUpdate();
+        }
+        return inserted;
+    }
+
+    private boolean isPostgres(){
+        if (postgres == null){
+            postgres = entityManager.unwrap(Session.class).doReturningWork(
+                    connection -> "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())
+            );
+        }
+        return postgres;
+    }
+}
@@ -1,17 +1,50 @@
 package ru.demichev.movies.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import ru.demichev.movies.domain.Director;
+import ru.demichev.movies.dto.NameView;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface DirectorRepository extends JpaRepository<Director, Long> {
+public interface DirectorRepository extends JpaRepository<Director, Long>, CustomDirectorRepository {
     @Transactional
     Optional<Director> findDirectorByLastName(String lastName);
 
     Optional<Director> findDirectorByFirstNameAndSecondNameAndLastNameAndYearOfBirth(String firstName, String secondName, String LastName, int year);
     Boolean existsByFirstNameAndSecondNameAndLastNameAndYearOfBirth(String firstName, String secondName, String LastName, int year);
+
+    @EntityGraph(attributePaths = "movies")
+    Optional<Director> findWithMoviesById(Long id);
+
+    Slice<Director> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query(value = "select d.director_id as id, d.last_name || ' ' || d.first_name || coalesce(' ' || d.second_name, '') as name " +
+            "from movies.director d " +
+            "where lower(d.last_name || ' ' || d.first_name || ' ' || coalesce(d.second_name, '')) like :pattern escape '\\' " +
+            "order by d.director_id limit :limit", nativeQuery = true)
+    List<NameView> searchNames(@Param("pattern") String pattern, @Param("limit") int limit);
+
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query(value = "select distinct d from Director d left join fetch d.movies where d.id in :ids")
+    List<Director> fetchMovies(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query(value = "from Director d order by d.id")
+    Stream<Director> streamAll();
 }
@@ -1,16 +1,39 @@
 package ru.demichev.movies.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.demichev.movies.domain.Genre;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GenreRepository extends JpaRepository<Genre, Long>, CustomGenreRepository {
     Optional<Genre> findByNameIgnoreCase(String genreName);
-    List<Genre> findAllByNameContainingIgnoreCase(String genreName);
+    @Query(value = "select g.* from movies.genre g where lower(g.name) like :pattern escape '\\' order by g.genre_id limit :limit", nativeQuery = true)
+    List<Genre> searchByName(@Param("pattern") String pattern, @Param("limit") int limit);
     boolean existsByNameIgnoreCase(String genreName);
+    @Query(value = "select lower(g.name) from Genre g where lower(g.name) in :names")
+    List<String> findExistingNames(@Param("names") Collection<String> lowerCaseNames);
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Genre> findAllByOrderByName();
+
+    Slice<Genre> findAllByOrderByNameAscIdAsc(Pageable pageable);
+
+    @Query(value = "from Genre g where g.name > :name or (g.name = :name and g.id > :id) order by g.name, g.id")
+    Slice<Genre> findPageAfter(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query(value = "select distinct g from Genre g left join fetch g.movies where g.id in :ids")
+    List<Genre> fetchMovies(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "select e.id from Genre e where e.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
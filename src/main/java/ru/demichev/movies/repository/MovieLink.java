@@ -0,0 +1,4 @@
+package ru.demichev.movies.repository;
+
+public record MovieLink(Long movieId, Long linkedId) {
+}
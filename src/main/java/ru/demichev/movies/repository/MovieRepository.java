@@ -1,23 +1,34 @@
 package ru.demichev.movies.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.dto.MovieDirectorView;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface MovieRepository extends JpaRepository<Movie, Long> {
-    @Query(value = "from Movie m where m.id in (select m.id from Movie m inner join m.actors a where a.id = :actor_id)")
+public interface MovieRepository extends JpaRepository<Movie, Long>, CustomMovieRepository {
+    @Query(value = "from Movie m join fetch m.director where m.id in (select m.id from Movie m inner join m.actors a where a.id = :actor_id)")
     List<Movie> findMoviesByActorId(@Param("actor_id") long actorId);
 
     @Query(value="from Movie m join fetch m.director")
     List<Movie> findAllMovieWithDirector();
 
+    @Query(value = "select m.title as title, d.firstName as firstName, d.lastName as lastName from Movie m join m.director d")
+    List<MovieDirectorView> findTitlesWithDirectors();
+
     @Transactional
     Optional<Movie> findMovieByTitleAndYear(String movieTitle, Integer year);
 
@@ -25,4 +36,31 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
 
     @Transactional
     Optional<Movie> findByTitleAndYear(String title, Integer year);
+
+    @EntityGraph(attributePaths = "director")
+    Slice<Movie> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "director")
+    List<Movie> findByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"director", "actors", "genres"})
+    Optional<Movie> findWithAssociationsById(Long id);
+
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query(value = "select distinct m from Movie m left join fetch m.actors where m.id in :ids")
+    List<Movie> fetchActors(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query(value = "select distinct m from Movie m left join fetch m.genres where m.id in :ids")
+    List<Movie> fetchGenres(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "select e.id from Movie e where e.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query(value = "from Movie m left join fetch m.director order by m.id")
+    Stream<Movie> streamAllWithDirector();
 }
@@ -1,8 +1,12 @@
 package ru.demichev.movies.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.demichev.movies.domain.Role;
 
+import javax.persistence.QueryHint;
+
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Role findByName(String name);
 }
@@ -0,0 +1,23 @@
+package ru.demichev.movies.repository;
+
+import java.util.Locale;
+
+public final class SearchPatterns {
+    private SearchPatterns() {
+    }
+
+    public static String contains(String query){
+        return "%" + escape(query) + "%";
+    }
+
+    public static String startsWith(String prefix){
+        return escape(prefix) + "%";
+    }
+
+    private static String escape(String query){
+        return query.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
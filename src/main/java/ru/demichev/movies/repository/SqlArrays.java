@@ -0,0 +1,111 @@
+package ru.demichev.movies.repository;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.CustomType;
+import org.hibernate.type.Type;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+// binds values as a real bigint[]/text[] through Connection.createArrayOf instead of a "{1,2}" literal the server has to parse
+final class SqlArrays {
+    static final Type BIGINT_ARRAY = new CustomType(new ArrayType<>(
+            "bigint", Long[].class, Long[]::new, value -> ((Number) value).longValue()));
+    static final Type TEXT_ARRAY = new CustomType(new ArrayType<>(
+            "text", String[].class, String[]::new, value -> (String) value));
+
+    private SqlArrays() {
+    }
+
+    static Long[] of(Collection<Long> ids){
+        return ids.toArray(Long[]::new);
+    }
+
+    private static final class ArrayType<T> implements UserType {
+        private final String elementType;
+        private final Class<T[]> arrayClass;
+        private final IntFunction<T[]> arrayFactory;
+        private final Function<Object, T> elementMapper;
+
+        private ArrayType(String elementType, Class<T[]> arrayClass, IntFunction<T[]> arrayFactory, Function<Object, T> elementMapper) {
+            this.elementType = elementType;
+            this.arrayClass = arrayClass;
+            this.arrayFactory = arrayFactory;
+            this.elementMapper = elementMapper;
+        }
+
+        @Override
+        public int[] sqlTypes() {
+            return new int[]{Types.ARRAY};
+        }
+
+        @Override
+        public Class<?> returnedClass() {
+            return arrayClass;
+        }
+
+        @Override
+        public boolean equals(Object x, Object y) {
+            return Arrays.equals((Object[]) x, (Object[]) y);
+        }
+
+        @Override
+        public int hashCode(Object x) {
+            return Arrays.hashCode((Object[]) x);
+        }
+
+        @Override
+        public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner) throws SQLException {
+            Array array = rs.getArray(names[0]);
+            if (array == null){
+                return null;
+            }
+            return Arrays.stream((Object[]) array.getArray())
+                    .map(value -> value == null ? null : elementMapper.apply(value))
+                    .toArray(arrayFactory);
+        }
+
+        @Override
+        public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session) throws SQLException {
+            if (value == null){
+                st.setNull(index, Types.ARRAY);
+            } else {
+                st.setArray(index, st.getConnection().createArrayOf(elementType, (Object[]) value));
+            }
+        }
+
+        @Override
+        public Object deepCopy(Object value) {
+            return value == null ? null : ((Object[]) value).clone();
+        }
+
+        @Override
+        public boolean isMutable() {
+            return true;
+        }
+
+        @Override
+        public Serializable disassemble(Object value) {
+            return (Serializable) deepCopy(value);
+        }
+
+        @Override
+        public Object assemble(Serializable cached, Object owner) {
+            return deepCopy(cached);
+        }
+
+        @Override
+        public Object replace(Object original, Object target, Object owner) {
+            return deepCopy(original);
+        }
+    }
+}
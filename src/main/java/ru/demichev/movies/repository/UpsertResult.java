@@ -0,0 +1,4 @@
+package ru.demichev.movies.repository;
+
+public record UpsertResult(Long id, boolean created) {
+}
@@ -0,0 +1,21 @@
+package ru.demichev.movies.repository;
+
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+import java.util.Optional;
+
+// upserts return "id, xmax = 0 as created": xmax is only zero for a row version written by the insert itself
+final class Upserts {
+    private Upserts() {
+    }
+
+    static Optional<UpsertResult> execute(NativeQuery<?> query){
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()){
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.get(0);
+        return Optional.of(new UpsertResult(((Number) row[0]).longValue(), (Boolean) row[1]));
+    }
+}
@@ -1,12 +1,24 @@
 package ru.demichev.movies.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.demichev.movies.domain.UserPrincipal;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<UserPrincipal, Long> {
 
     Optional<UserPrincipal> findUserByLogin(String login);
 
+    @EntityGraph(attributePaths = "roles")
+    Optional<UserPrincipal> findWithRolesById(Long id);
+
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query(value = "select distinct u from UserPrincipal u left join fetch u.roles")
+    List<UserPrincipal> findAllWithRoles();
+
 }
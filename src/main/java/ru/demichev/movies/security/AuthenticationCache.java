@@ -0,0 +1,73 @@
+package ru.demichev.movies.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+@Component
+public class AuthenticationCache {
+    private static final String HMAC = "HmacSHA256";
+
+    private final Cache<CredentialKey, UserDetails> authenticated;
+    private final SecretKeySpec digestKey;
+
+    @Autowired
+    public AuthenticationCache(@Value("${movies.security.auth-cache.ttl:PT1M}") Duration ttl,
+                               @Value("${movies.security.auth-cache.max-size:10000}") long maxSize) {
+        this(ttl, maxSize, Ticker.systemTicker());
+    }
+
+    AuthenticationCache(Duration ttl, long maxSize, Ticker ticker) {
+        this.authenticated = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, HMAC);
+    }
+
+    public UserDetails getAuthenticated(String login, String secret){
+        return authenticated.getIfPresent(new CredentialKey(login, digest(secret)));
+    }
+
+    public void putAuthenticated(String login, String secret, UserDetails userDetails){
+        UserDetails snapshot = User.withUserDetails(userDetails).password("").build();
+        authenticated.put(new CredentialKey(login, digest(secret)), snapshot);
+    }
+
+    public void invalidate(String login){
+        authenticated.asMap().keySet().removeIf(key -> key.login().equals(login));
+    }
+
+    public void invalidateAll(){
+        authenticated.invalidateAll();
+    }
+
+    private String digest(String secret){
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(digestKey);
+            return Base64.getEncoder().encodeToString(mac.doFinal(secret.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CredentialKey(String login, String digest) {
+    }
+}
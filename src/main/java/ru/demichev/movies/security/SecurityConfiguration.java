@@ -3,6 +3,9 @@ package ru.demichev.movies.security;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,6 +13,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -27,6 +31,12 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     @Autowired
     UserAuthService userAuthService;
 
+    @Autowired
+    AuthenticationCache authenticationCache;
+
+    @Autowired
+    TokenService tokenService;
+
     @Autowired
     @Qualifier("customAuthenticationEntryPoint")
     AuthenticationEntryPoint authEntryPoint;
@@ -35,7 +45,10 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     @Override
     public void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userAuthService).passwordEncoder(bCryptPasswordEncoder);
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(userAuthService);
+        daoAuthenticationProvider.setPasswordEncoder(bCryptPasswordEncoder);
+        auth.authenticationProvider(new CachingAuthenticationProvider(daoAuthenticationProvider, authenticationCache));
 
         /*auth.inMemoryAuthentication()
                     .withUser("client")
@@ -57,8 +70,13 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
                 //.csrf().csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
                 .csrf().disable()
                 //.and()
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService, authEntryPoint), BasicAuthenticationFilter.class)
                 .authorizeRequests()
+                .antMatchers("/api/v1/auth/token").permitAll()
                 .antMatchers("/api/v1/admin/**").hasRole("ADMIN")
+                .antMatchers("/actuator/**").hasRole("ADMIN")
+                //full-table exports hold a connection for up to an hour
+                .antMatchers(HttpMethod.GET, "/api/v1/movies/*/export").hasRole("ADMIN")
                 .antMatchers("/api/v1/**").authenticated()
                 .anyRequest().authenticated()
                 .and()
@@ -70,6 +88,12 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     }
 
+    @Bean
+    @Override
+    public AuthenticationManager authenticationManagerBean() throws Exception {
+        return super.authenticationManagerBean();
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         final CorsConfiguration configuration = new CorsConfiguration();
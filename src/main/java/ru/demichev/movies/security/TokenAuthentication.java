@@ -0,0 +1,28 @@
+package ru.demichev.movies.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.Transient;
+
+import java.util.Collection;
+
+@Transient
+public class TokenAuthentication extends AbstractAuthenticationToken {
+    private final String login;
+
+    public TokenAuthentication(String login, Collection<? extends GrantedAuthority> authorities) {
+        super(authorities);
+        this.login = login;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return login;
+    }
+}
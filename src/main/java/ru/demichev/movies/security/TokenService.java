@@ -0,0 +1,106 @@
+package ru.demichev.movies.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class TokenService {
+    private static final String HMAC = "HmacSHA256";
+    private static final String FIELD_SEPARATOR = "|";
+    private static final String ROLE_SEPARATOR = ",";
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock;
+
+    public TokenService(@Value("${movies.security.token.secret:}") String secret,
+                        @Value("${movies.security.token.ttl:PT15M}") Duration ttl) {
+        this(secret, ttl, Clock.systemUTC());
+    }
+
+    TokenService(String secret, Duration ttl, Clock clock) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()){
+            log.warn("movies.security.token.secret is not set, tokens will only be valid on this node until restart");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+        }
+        this.key = new SecretKeySpec(keyBytes, HMAC);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public Token issue(String login, Collection<? extends GrantedAuthority> authorities){
+        Instant expiresAt = clock.instant().plus(ttl);
+        String roles = authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(ROLE_SEPARATOR));
+        String payload = expiresAt.getEpochSecond() + FIELD_SEPARATOR + roles + FIELD_SEPARATOR + login;
+        String encodedPayload = encode(payload.getBytes(StandardCharsets.UTF_8));
+        return new Token(encodedPayload + "." + encode(sign(encodedPayload)), expiresAt);
+    }
+
+    public Optional<Authentication> verify(String token){
+        int dot = token.indexOf('.');
+        if (dot < 0){
+            return Optional.empty();
+        }
+        String encodedPayload = token.substring(0, dot);
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(encodedPayload), signature)){
+                return Optional.empty();
+            }
+            String[] fields = new String(Base64.getUrlDecoder().decode(encodedPayload), StandardCharsets.UTF_8)
+                    .split("\\" + FIELD_SEPARATOR, 3);
+            if (fields.length != 3 || clock.instant().getEpochSecond() >= Long.parseLong(fields[0])){
+                return Optional.empty();
+            }
+            List<SimpleGrantedAuthority> authorities = Arrays.stream(fields[1].split(ROLE_SEPARATOR))
+                    .filter(role -> !role.isEmpty())
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toList());
+            return Optional.of(new TokenAuthentication(fields[2], authorities));
+        } catch (IllegalArgumentException e){
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String payload){
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(byte[] bytes){
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public record Token(String value, Instant expiresAt) {
+    }
+}
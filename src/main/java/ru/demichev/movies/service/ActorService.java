@@ -1,32 +1,60 @@
 package ru.demichev.movies.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.demichev.movies.domain.Actor;
 import ru.demichev.movies.dto.ActorDto;
+import ru.demichev.movies.dto.NameView;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.repository.ActorRepository;
+import ru.demichev.movies.repository.SearchPatterns;
+import ru.demichev.movies.repository.UpsertResult;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class ActorService {
     private final ActorRepository actorRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Transactional(readOnly=true)
     public List<Actor> findAll(){
-        return actorRepository.findAll();
+        return fetchMovies(actorRepository.findAll());
+    }
+
+    @Transactional(readOnly=true)
+    public Slice<Actor> findPage(Long afterId, int limit){
+        Slice<Actor> page = actorRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, PageRequest.of(0, limit));
+        fetchMovies(page.getContent());
+        return page;
+    }
+
+    @Transactional(readOnly=true)
+    public void exportActors(Consumer<Actor> consumer){
+        ChunkedExport.forEach(actorRepository.streamAll(), entityManager, this::fetchMovies, consumer);
+    }
+
+    @Transactional(readOnly=true)
+    public List<NameView> searchNames(String query, int limit){
+        return actorRepository.searchNames(SearchPatterns.contains(query), limit);
     }
 
     @Transactional(readOnly=true)
     public Actor findById(Long id){
         return actorRepository
-                .findById(id)
+                .findWithMoviesById(id)
                 .orElseThrow(()-> new NotFoundException(String.format("Actor with id '%s' not found", id)));
     }
 
@@ -42,9 +70,15 @@ public class ActorService {
         return actorRepository.save(actor);
     }
 
+    @Transactional
+    public Upserted<Actor> upsertActor(Actor actor){
+        UpsertResult result = actorRepository.upsert(actor);
+        return new Upserted<>(findById(result.id()), result.created());
+    }
+
     @Transactional
     public Actor updateActor(Actor actor, Long id){
-        Actor actorToUpdate = actorRepository.findById(id)
+        Actor actorToUpdate = actorRepository.findWithMoviesById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Actor with id '%s' not found", id)));
         Optional<Actor> existsByNameActor = actorRepository.findActorByFirstNameAndSecondNameAndLastNameAndYearOfBirth(
                 actor.getFirstName(),
@@ -72,23 +106,37 @@ public class ActorService {
                 .findById(id)
                 .orElseThrow(()-> new NotFoundException(String.format("Actor with id '%s' not found", id)));
         actorRepository.delete(actor);
-        return actorRepository.findAll();
+        return fetchMovies(actorRepository.findAll());
     }
 
-    @Transactional
+    @Transactional(readOnly=true)
     public Actor getById(Long id){
         return actorRepository.getReferenceById(id);
     }
 
-    public List<Actor> findActorsNotAssignedToMovie(Long id){
-        return actorRepository.findActorNotAssignedToMovie(id);
+    @Transactional(readOnly=true)
+    public Slice<NameView> findActorsNotAssignedToMovie(Long id, String prefix, Long afterId, int limit){
+        List<NameView> actors = actorRepository.findActorNamesNotAssignedToMovie(
+                id,
+                SearchPatterns.startsWith(prefix == null ? "" : prefix),
+                afterId == null ? 0 : afterId,
+                limit + 1
+        );
+        boolean hasNext = actors.size() > limit;
+        return new SliceImpl<>(hasNext ? actors.subList(0, limit) : actors, PageRequest.of(0, limit), hasNext);
     }
 
+    @Transactional(readOnly=true)
     public List<Actor> findActorsAssignedToMovie(Long id){
-        return actorRepository.findActorAssignedToMovie(id);
+        return fetchMovies(actorRepository.findActorAssignedToMovie(id));
     }
 
     public List<ActorDto> findActorsAssignedToMovieWithProjection(Long id){
         return actorRepository.findActorAssignedToMovieWithProjection(id);
     }
+
+    private List<Actor> fetchMovies(List<Actor> actors){
+        IdChunks.forEach(actors, Actor::getId, actorRepository::fetchMovies);
+        return actors;
+    }
 }
@@ -0,0 +1,32 @@
+package ru.demichev.movies.service;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+final class ChunkedExport {
+    static final int CHUNK_SIZE = 500;
+
+    private ChunkedExport() {
+    }
+
+    // rows are handed out chunk by chunk and detached afterwards, so the persistence context never outgrows one chunk
+    static <T> void forEach(Stream<T> rows, EntityManager entityManager, Consumer<List<T>> prepare, Consumer<T> consumer){
+        try (rows){
+            List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()){
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()){
+                    prepare.accept(chunk);
+                    chunk.forEach(consumer);
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+}
@@ -1,32 +1,61 @@
 package ru.demichev.movies.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.demichev.movies.domain.Director;
+import ru.demichev.movies.dto.NameView;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.repository.DirectorRepository;
+import ru.demichev.movies.repository.SearchPatterns;
+import ru.demichev.movies.repository.UpsertResult;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class DirectorService {
 
     private final DirectorRepository directorRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Transactional(readOnly=true)
     public List<Director> findAll(){
-        return directorRepository.findAll();
+        List<Director> directors = directorRepository.findAll();
+        fetchMovies(directors);
+        return directors;
+    }
+
+    @Transactional(readOnly=true)
+    public Slice<Director> findPage(Long afterId, int limit){
+        Slice<Director> page = directorRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, PageRequest.of(0, limit));
+        fetchMovies(page.getContent());
+        return page;
+    }
+
+    @Transactional(readOnly=true)
+    public void exportDirectors(Consumer<Director> consumer){
+        ChunkedExport.forEach(directorRepository.streamAll(), entityManager, this::fetchMovies, consumer);
+    }
+
+    @Transactional(readOnly=true)
+    public List<NameView> searchNames(String query, int limit){
+        return directorRepository.searchNames(SearchPatterns.contains(query), limit);
     }
 
     @Transactional(readOnly=true)
     public Director findById(Long id){
         return directorRepository
-                .findById(id)
+                .findWithMoviesById(id)
                 .orElseThrow(()-> new NotFoundException(String.format("Director with id '%s' not found", id)));
     }
 
@@ -42,9 +71,15 @@ public class DirectorService {
         return directorRepository.save(director);
     }
 
+    @Transactional
+    public Upserted<Director> upsertDirector(Director director){
+        UpsertResult result = directorRepository.upsert(director);
+        return new Upserted<>(findById(result.id()), result.created());
+    }
+
     @Transactional
     public Director updateDirector(Director director, Long id){
-        Director directorToUpdate = directorRepository.findById(id)
+        Director directorToUpdate = directorRepository.findWithMoviesById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Director with id '%s' not found", id)));
         Optional<Director> existsByNameDirector = directorRepository.findDirectorByFirstNameAndSecondNameAndLastNameAndYearOfBirth(
                 director.getFirstName(),
@@ -75,4 +110,7 @@ public class DirectorService {
         return directorRepository.findAll();
     }
 
+    private void fetchMovies(List<Director> directors){
+        IdChunks.forEach(directors, Director::getId, directorRepository::fetchMovies);
+    }
 }
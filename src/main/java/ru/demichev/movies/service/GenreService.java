@@ -2,18 +2,28 @@ package ru.demichev.movies.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.demichev.movies.cache.GenreCache;
 import ru.demichev.movies.domain.Genre;
+import ru.demichev.movies.dto.GenreBulkResultDto;
 import ru.demichev.movies.dto.GenreDto;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.repository.GenreRepository;
+import ru.demichev.movies.repository.SearchPatterns;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -23,32 +33,40 @@ import static java.lang.String.format;
 public class GenreService {
 
     private final GenreRepository genreRepository;
+    private final GenreCache genreCache;
 
 
-    @Transactional(readOnly=true)
     public List<Genre> findAll(){
-        return genreRepository.findAllByOrderByName();
+        return genreCache.findAll(genreRepository::findAllByOrderByName);
     }
 
-
     @Transactional(readOnly=true)
+    public Slice<Genre> findPage(String afterName, Long afterId, int limit){
+        Slice<Genre> page = afterId == null
+                ? genreRepository.findAllByOrderByNameAscIdAsc(PageRequest.of(0, limit))
+                : genreRepository.findPageAfter(afterName, afterId, PageRequest.of(0, limit));
+        fetchMovies(page.getContent());
+        return page;
+    }
+
+
     public Genre findById(Long id){
-        return genreRepository
-                 .findById(id)
+        return genreCache
+                 .findById(id, genreRepository::findById)
                  .orElseThrow(()-> new NotFoundException(format("Genre with id '%s' not found", id)));
     }
 
-    @Transactional(readOnly=true)
     public Genre findByName(String name){
-        return genreRepository
-                .findByNameIgnoreCase(name)
+        return genreCache
+                .findByName(name, genreRepository::findByNameIgnoreCase)
                 .orElseThrow(()->new NotFoundException(format("Genre with name '%s' not found", name)));
     }
 
     @Transactional(readOnly=true)
-    public List<Genre> findByContainingPrefix(String prefix){
-        return genreRepository
-                .findAllByNameContainingIgnoreCase(prefix);
+    public List<Genre> findByContainingPrefix(String prefix, int limit){
+        List<Genre> genres = genreRepository.searchByName(SearchPatterns.contains(prefix), limit);
+        fetchMovies(genres);
+        return genres;
     }
     
     @Transactional
@@ -56,21 +74,65 @@ public class GenreService {
         if(genreRepository.existsByNameIgnoreCase(genre.getName())){
             throw new ExistsException(format("Genre with title '%s' is already present", genre.getName()));
         }
+        genreCache.invalidateAfterCommit();
         return genreRepository.save(genre);
     }
 
     @Transactional
     public List<Genre> createGenres(List<Genre> genres){
+        Set<String> existing = findExistingNames(genres);
+        Set<String> names = new HashSet<>();
+        for (Genre genre : genres){
+            String name = lowerCase(genre.getName());
+            if (existing.contains(name) || !names.add(name)){
+                throw new ExistsException(format("Genre with title '%s' is already present", genre.getName()));
+            }
+        }
+        genreCache.invalidateAfterCommit();
+        return genreRepository.saveAll(genres);
+    }
+
+    @Transactional
+    public List<GenreBulkResultDto> createGenresBulk(List<Genre> genres){
+        Map<String, Long> created = genreRepository.insertSkippingExisting(
+                genres.stream().map(Genre::getName).collect(Collectors.toList()));
+        if (!created.isEmpty()){
+            genreCache.invalidateAfterCommit();
+        }
         return genres
                 .stream()
-                .map(this::createGenre)
+                .map(genre -> {
+                    Long id = created.remove(genre.getName());
+                    return id != null
+                            ? new GenreBulkResultDto(genre.getName(), GenreBulkResultDto.Status.CREATED, id)
+                            : new GenreBulkResultDto(genre.getName(), GenreBulkResultDto.Status.CONFLICT, null);
+                })
                 .collect(Collectors.toList());
     }
 
+    private Set<String> findExistingNames(List<Genre> genres){
+        if (genres.isEmpty()){
+            return new HashSet<>();
+        }
+        return new HashSet<>(genreRepository.findExistingNames(
+                genres.stream().map(genre -> lowerCase(genre.getName())).collect(Collectors.toSet())));
+    }
+
+    private void fetchMovies(List<Genre> genres){
+        if (!genres.isEmpty()){
+            genreRepository.fetchMovies(genres.stream().map(Genre::getId).collect(Collectors.toList()));
+        }
+    }
+
+    private static String lowerCase(String name){
+        return name.toLowerCase(Locale.ROOT);
+    }
+
     @Transactional
     public Genre updateGenre(Genre genre, Long id){
         Genre genreToUpdate = genreRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Genre with \"%s\" doesn't exist.", id)));
+        fetchMovies(List.of(genreToUpdate));
         Optional<Genre> existsByNameGenre = genreRepository.findByNameIgnoreCase(genre.getName());
         if (existsByNameGenre.isPresent()){
             if(!Objects.equals(existsByNameGenre.get().getId(), id)){
@@ -78,6 +140,7 @@ public class GenreService {
             }
         }
         genreToUpdate.setName(genre.getName());
+        genreCache.invalidateAfterCommit();
         return genreRepository.save(genreToUpdate);
     }
 
@@ -87,10 +150,19 @@ public class GenreService {
                 .findById(id)
                 .orElseThrow(()-> new NotFoundException(format("Genre with id '%s' not found", id)));
         genreRepository.delete(genre);
+        genreCache.invalidateAfterCommit();
         return genreRepository.findAll();
     }
 
     public List<GenreDto> findGenreWithMovie(Collection<Long> genreIds, int topMoviesCount){
         return genreRepository.findGenreWithMovie(genreIds, topMoviesCount);
     }
+
+    // cached genres carry no movies, so the detail view reads its top movies through the top query
+    public GenreDto withTopMovies(Genre genre, int topMoviesCount){
+        return findGenreWithMovie(List.of(genre.getId()), topMoviesCount)
+                .stream()
+                .findFirst()
+                .orElseGet(() -> new GenreDto(genre.getId(), genre.getName(), new LinkedHashSet<>()));
+    }
 }
@@ -0,0 +1,21 @@
+package ru.demichev.movies.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+final class IdChunks {
+    static final int CHUNK_SIZE = 1000;
+
+    private IdChunks() {
+    }
+
+    // "in :ids" binds one parameter per id and PostgreSQL accepts at most 32767 of them per statement
+    static <T> void forEach(List<T> entities, Function<T, Long> id, Consumer<List<Long>> fetch){
+        List<Long> ids = entities.stream().map(id).collect(Collectors.toList());
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE){
+            fetch.accept(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+        }
+    }
+}
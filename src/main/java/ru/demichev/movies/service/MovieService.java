@@ -2,31 +2,71 @@ package ru.demichev.movies.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.demichev.movies.domain.Director;
 import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.dto.MovieDirectorView;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
+import ru.demichev.movies.repository.ActorRepository;
+import ru.demichev.movies.repository.DirectorRepository;
+import ru.demichev.movies.repository.GenreRepository;
+import ru.demichev.movies.repository.MovieLink;
 import ru.demichev.movies.repository.MovieRepository;
+import ru.demichev.movies.repository.UpsertResult;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class MovieService {
+    public static final int MAX_ASSIGNMENTS = 10_000;
+
     private final MovieRepository movieRepository;
+    private final ActorRepository actorRepository;
+    private final GenreRepository genreRepository;
+    private final DirectorRepository directorRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Transactional(readOnly=true)
     public List<Movie> findAll(){
-        return movieRepository.findAll();
+        return fetchAssociations(movieRepository.findAllMovieWithDirector());
+    }
+
+    @Transactional(readOnly=true)
+    public Slice<Movie> findPage(Long afterId, int limit){
+        Slice<Movie> page = movieRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, PageRequest.of(0, limit));
+        fetchAssociations(page.getContent());
+        return page;
+    }
+
+    @Transactional(readOnly=true)
+    public Slice<Movie> search(String query, int offset, int limit){
+        List<Long> ids = movieRepository.searchIds(query, offset, limit + 1);
+        boolean hasNext = ids.size() > limit;
+        List<Long> pageIds = hasNext ? ids.subList(0, limit) : ids;
+        Map<Long, Movie> movies = movieRepository.findByIdIn(pageIds)
+                .stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        List<Movie> ordered = fetchAssociations(pageIds.stream().map(movies::get).filter(Objects::nonNull).collect(Collectors.toList()));
+        return new SliceImpl<>(ordered, PageRequest.of(0, limit), hasNext);
     }
 
     @Transactional(readOnly=true)
     public Movie findById(Long id){
         return movieRepository
-                .findById(id)
+                .findWithAssociationsById(id)
                 .orElseThrow(()-> new NotFoundException(String.format("Movie with id '%s' not found", id)));
     }
     @Transactional
@@ -36,12 +76,24 @@ public class MovieService {
                 movie.getYear())){
             throw new ExistsException(String.format("Movie with title '%s' and year '%s' is already present",movie.getTitle(),movie.getYear()));
         }
+        Long directorId = movie.getDirector().getId();
+        movie.setDirector(directorRepository
+                .findById(directorId)
+                .orElseThrow(() -> new NotFoundException(String.format("Director with id '%s' not found", directorId))));
         return movieRepository.save(movie);
     }
 
+    @Transactional
+    public Upserted<Movie> upsertMovie(Movie movie){
+        Long directorId = movie.getDirector().getId();
+        UpsertResult result = movieRepository.upsert(movie)
+                .orElseThrow(() -> new NotFoundException(String.format("Director with id '%s' not found", directorId)));
+        return new Upserted<>(findById(result.id()), result.created());
+    }
+
     @Transactional
     public Movie updateMovie(Movie movie, Long id){
-        Movie movieToUpdate = movieRepository.findById(id)
+        Movie movieToUpdate = movieRepository.findWithAssociationsById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Movie with id '%s' not found", id)));
         Optional<Movie> existsByNameTitleAndYear = movieRepository.findByTitleAndYear(
                 movie.getTitle(),
@@ -54,6 +106,7 @@ public class MovieService {
         movieToUpdate.setTitle(movie.getTitle());
         movieToUpdate.setDescription(movie.getDescription());
         movieToUpdate.setYear(movie.getYear());
+        movieToUpdate.setRating(movie.getRating());
 
         return movieRepository.save(movieToUpdate);
     }
@@ -67,23 +120,60 @@ public class MovieService {
         return movieRepository.findAll();
     }
 
-    @Transactional
+    @Transactional(readOnly=true)
     public Movie getById(Long id){
         return movieRepository.getReferenceById(id);
     }
 
+    @Transactional(readOnly=true)
     public List<Movie> getMovie(Long id){
-        return movieRepository.findMoviesByActorId(id);
+        return fetchAssociations(movieRepository.findMoviesByActorId(id));
+    }
+
+    @Transactional(readOnly=true)
+    public void exportMovies(Consumer<Movie> consumer){
+        ChunkedExport.forEach(movieRepository.streamAllWithDirector(), entityManager, this::fetchAssociations, consumer);
+    }
+
+    @Transactional
+    public int assignActors(List<MovieLink> links){
+        checkExisting("Movie", links.stream().map(MovieLink::movieId), movieRepository::findExistingIds);
+        checkExisting("Actor", links.stream().map(MovieLink::linkedId), actorRepository::findExistingIds);
+        return movieRepository.assignActors(links);
     }
 
     @Transactional
+    public int assignGenres(List<MovieLink> links){
+        checkExisting("Movie", links.stream().map(MovieLink::movieId), movieRepository::findExistingIds);
+        checkExisting("Genre", links.stream().map(MovieLink::linkedId), genreRepository::findExistingIds);
+        return movieRepository.assignGenres(links);
+    }
+
+    @Transactional(readOnly=true)
     public Map<String, Object> findDirectorWithMovies(){
-        List<Movie> movies = movieRepository.findAllMovieWithDirector();
         Map<String, Object> cell = new HashMap<>();
-        for (Movie movie: movies){
-            Director director = movie.getDirector();
-            cell.put(movie.getTitle(), director.getFirstName() + " " + director.getLastName());
+        for (MovieDirectorView movie : movieRepository.findTitlesWithDirectors()){
+            cell.put(movie.getTitle(), movie.getFirstName() + " " + movie.getLastName());
         }
         return cell;
     }
+
+    private static void checkExisting(String entity, Stream<Long> ids, Function<Collection<Long>, List<Long>> finder){
+        Set<Long> requested = ids.collect(Collectors.toCollection(TreeSet::new));
+        if (requested.isEmpty()){
+            return;
+        }
+        requested.removeAll(finder.apply(requested));
+        if (!requested.isEmpty()){
+            throw new NotFoundException(String.format("%s with id '%s' not found", entity, requested.iterator().next()));
+        }
+    }
+
+    private List<Movie> fetchAssociations(List<Movie> movies){
+        IdChunks.forEach(movies, Movie::getId, ids -> {
+            movieRepository.fetchActors(ids);
+            movieRepository.fetchGenres(ids);
+        });
+        return movies;
+    }
 }
@@ -0,0 +1,4 @@
+package ru.demichev.movies.service;
+
+public record Upserted<T>(T value, boolean created) {
+}
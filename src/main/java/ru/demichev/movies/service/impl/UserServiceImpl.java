@@ -2,10 +2,12 @@ package ru.demichev.movies.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.demichev.movies.domain.UserPrincipal;
 import ru.demichev.movies.dto.UserDto;
 import ru.demichev.movies.mapper.UserMapper;
 import ru.demichev.movies.repository.UserRepository;
+import ru.demichev.movies.security.AuthenticationCache;
 import ru.demichev.movies.service.UserService;
 
 import java.util.List;
@@ -17,15 +19,18 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final AuthenticationCache authenticationCache;
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> findAll() {
-        return userRepository.findAll().stream().map(userMapper::toDto).collect(Collectors.toList());
+        return userRepository.findAllWithRoles().stream().map(userMapper::toDto).collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<UserPrincipal> findById(Long id) {
-        return userRepository.findById(id);
+        return userRepository.findWithRolesById(id);
     }
 
     @Override
@@ -35,12 +40,16 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserPrincipal updateUser(UserPrincipal userPrincipal) {
-        return userRepository.save(userPrincipal);
+        UserPrincipal saved = userRepository.save(userPrincipal);
+        authenticationCache.invalidate(saved.getLogin());
+        return saved;
     }
 
     @Override
     public Boolean deleteUser(Long id) {
+        Optional<UserPrincipal> user = userRepository.findById(id);
         userRepository.deleteById(id);
+        user.ifPresent(userPrincipal -> authenticationCache.invalidate(userPrincipal.getLogin()));
         return true;
     }
 }
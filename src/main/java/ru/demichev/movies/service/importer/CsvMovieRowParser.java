@@ -0,0 +1,121 @@
+package ru.demichev.movies.service.importer;
+
+import ru.demichev.movies.dto.crt.MovieImportDto;
+import ru.demichev.movies.dto.crt.PersonImportDto;
+
+import java.util.*;
+
+// columns: title,year,description,rating,director,actors,genres
+// a person is "first;second;last;year", several actors and genres are separated by '|'
+// quoted values may span lines, MovieRecordReader hands over the whole record
+public class CsvMovieRowParser implements MovieRowParser {
+    private static final List<String> COLUMNS = List.of("title", "year", "description", "rating", "director", "actors", "genres");
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    public CsvMovieRowParser(String header) {
+        List<String> names = split(header);
+        for (int i = 0; i < names.size(); i++){
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("year")){
+            throw new IllegalArgumentException("CSV header must contain " + COLUMNS);
+        }
+    }
+
+    @Override
+    public MovieImportDto parse(String line) {
+        List<String> values = split(line);
+        MovieImportDto row = new MovieImportDto();
+        row.setTitle(value(values, "title"));
+        row.setYear(toInteger(value(values, "year")));
+        row.setDescription(value(values, "description"));
+        row.setRating(toInteger(value(values, "rating")));
+        String director = value(values, "director");
+        row.setDirector(director == null ? null : toPerson(director));
+        row.setActors(list(value(values, "actors")).stream().map(CsvMovieRowParser::toPerson).toList());
+        row.setGenres(list(value(values, "genres")));
+        return row;
+    }
+
+    private String value(List<String> values, String column){
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()){
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<String> list(String value){
+        if (value == null){
+            return new ArrayList<>();
+        }
+        List<String> result = new ArrayList<>();
+        for (String item : value.split("\\|")){
+            if (!item.isBlank()){
+                result.add(item.trim());
+            }
+        }
+        return result;
+    }
+
+    private static PersonImportDto toPerson(String value){
+        String[] parts = value.split(";", -1);
+        if (parts.length != 4){
+            throw new IllegalArgumentException(String.format("Person '%s' must be 'first;second;last;year'", value));
+        }
+        return new PersonImportDto(
+                blankToNull(parts[0]),
+                blankToNull(parts[1]),
+                blankToNull(parts[2]),
+                toInteger(blankToNull(parts[3]))
+        );
+    }
+
+    private static Integer toInteger(String value){
+        if (value == null){
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e){
+            throw new IllegalArgumentException(String.format("'%s' is not a number", value));
+        }
+    }
+
+    private static String blankToNull(String value){
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    static List<String> split(String line){
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++){
+            char c = line.charAt(i);
+            if (quoted){
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"'){
+                    current.append('"');
+                    i++;
+                } else if (c == '"'){
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"'){
+                quoted = true;
+            } else if (c == ','){
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted){
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -0,0 +1,6 @@
+package ru.demichev.movies.service.importer;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV
+}
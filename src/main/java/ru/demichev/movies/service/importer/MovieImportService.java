@@ -0,0 +1,314 @@
+package ru.demichev.movies.service.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.demichev.movies.cache.GenreCache;
+import ru.demichev.movies.dto.ImportErrorDto;
+import ru.demichev.movies.dto.ImportResultDto;
+import ru.demichev.movies.dto.crt.MovieImportDto;
+import ru.demichev.movies.dto.crt.PersonImportDto;
+
+import javax.persistence.EntityManagerFactory;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MovieImportService {
+    public static final int MAX_BATCH_SIZE = 10_000;
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final GenreCache genreCache;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ImportResultDto importMovies(Reader source, ImportFormat format, int batchSize) throws IOException {
+        ImportResultDto result = new ImportResultDto();
+        MovieRecordReader reader = new MovieRecordReader(new BufferedReader(source), format == ImportFormat.CSV);
+        MovieRowParser parser;
+        if (format == ImportFormat.CSV){
+            String header = reader.next();
+            if (header == null){
+                return result;
+            }
+            parser = new CsvMovieRowParser(header);
+        } else {
+            parser = new NdjsonMovieRowParser(objectMapper.reader());
+        }
+
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        String record;
+        while ((record = reader.next()) != null){
+            long lineNumber = reader.line();
+            if (record.isBlank()){
+                continue;
+            }
+            result.setProcessed(result.getProcessed() + 1);
+            MovieImportDto movie;
+            try {
+                movie = parser.parse(record);
+            } catch (IllegalArgumentException e){
+                result.addError(lineNumber, "Malformed row: " + e.getMessage());
+                continue;
+            }
+            Set<ConstraintViolation<MovieImportDto>> violations = validator.validate(movie);
+            if (!violations.isEmpty()){
+                result.addError(lineNumber, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+            batch.add(new ImportRow(lineNumber, movie));
+            if (batch.size() >= batchSize){
+                writeBatch(batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()){
+            writeBatch(batch, result);
+        }
+        log.info("Movie import finished: processed {}, imported {}, failed {}",
+                result.getProcessed(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void writeBatch(List<ImportRow> batch, ImportResultDto result){
+        List<ImportErrorDto> errors = new ArrayList<>();
+        try {
+            Integer imported = transactionTemplate.execute(status -> write(batch, errors));
+            result.setImported(result.getImported() + (imported == null ? 0 : imported));
+            errors.forEach(error -> result.addError(error.getLine(), error.getMessage()));
+        } catch (RuntimeException e){
+            log.warn("Movie import batch starting at line {} failed", batch.get(0).line(), e);
+            batch.forEach(row -> result.addError(row.line(), "Batch failed: " + e.getMessage()));
+        }
+    }
+
+    private int write(List<ImportRow> batch, List<ImportErrorDto> errors){
+        Set<MovieKey> existing = existingMovies(batch);
+        Set<MovieKey> seen = new HashSet<>();
+        List<ImportRow> accepted = new ArrayList<>();
+        for (ImportRow row : batch){
+            MovieKey key = MovieKey.of(row.movie());
+            if (existing.contains(key)){
+                errors.add(new ImportErrorDto(row.line(), String.format(
+                        "Movie with title '%s' and year '%s' is already present", key.title(), key.year())));
+            } else if (!seen.add(key)){
+                errors.add(new ImportErrorDto(row.line(), String.format(
+                        "Movie with title '%s' and year '%s' is repeated in the import", key.title(), key.year())));
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()){
+            return 0;
+        }
+
+        Map<PersonKey, Long> directors = resolvePeople("director",
+                accepted.stream().map(row -> PersonKey.of(row.movie().getDirector())).collect(Collectors.toSet()));
+        Map<PersonKey, Long> actors = resolvePeople("actor",
+                accepted.stream().flatMap(row -> row.movie().getActors().stream()).map(PersonKey::of).collect(Collectors.toSet()));
+        Map<String, Long> genres = resolveGenres(
+                accepted.stream().flatMap(row -> row.movie().getGenres().stream()).collect(Collectors.toSet()));
+
+        List<Long> movieIds = reserveIds("movie_movie_id_seq", accepted.size());
+        List<SqlParameterSource> movies = new ArrayList<>(accepted.size());
+        List<SqlParameterSource> actorLinks = new ArrayList<>();
+        List<SqlParameterSource> genreLinks = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++){
+            MovieImportDto movie = accepted.get(i).movie();
+            Long movieId = movieIds.get(i);
+            movies.add(new MapSqlParameterSource()
+                    .addValue("id", movieId)
+                    .addValue("title", movie.getTitle().trim())
+                    .addValue("year", movie.getYear())
+                    .addValue("description", movie.getDescription())
+                    .addValue("directorId", directors.get(PersonKey.of(movie.getDirector())))
+                    .addValue("rating", movie.getRating()));
+            movie.getActors().stream()
+                    .map(actor -> actors.get(PersonKey.of(actor)))
+                    .distinct()
+                    .forEach(actorId -> actorLinks.add(new MapSqlParameterSource()
+                            .addValue("actorId", actorId)
+                            .addValue("movieId", movieId)));
+            movie.getGenres().stream()
+                    .map(genre -> genres.get(normalize(genre)))
+                    .distinct()
+                    .forEach(genreId -> genreLinks.add(new MapSqlParameterSource()
+                            .addValue("genreId", genreId)
+                            .addValue("movieId", movieId)));
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into movies.movie (movie_id, movie_title, movie_year, description, director_id, rating) " +
+                        "values (:id, :title, :year, :description, :directorId, :rating)",
+                movies.toArray(SqlParameterSource[]::new));
+        jdbcTemplate.batchUpdate(
+                "insert into movies.actor_movies (actors_actor_id, movies_movie_id) values (:actorId, :movieId)",
+                actorLinks.toArray(SqlParameterSource[]::new));
+        jdbcTemplate.batchUpdate(
+                "insert into movies.genre_movies (genres_genre_id, movies_movie_id) values (:genreId, :movieId)",
+                genreLinks.toArray(SqlParameterSource[]::new));
+        return accepted.size();
+    }
+
+    private Set<MovieKey> existingMovies(List<ImportRow> batch){
+        Set<MovieKey> existing = new HashSet<>();
+        String[] titles = batch.stream().map(row -> row.movie().getTitle().trim()).distinct().toArray(String[]::new);
+        jdbcTemplate.query(
+                "select movie_title, movie_year from movies.movie where movie_title = any(:titles)",
+                Map.of("titles", titles),
+                (RowCallbackHandler) rs -> existing.add(new MovieKey(rs.getString("movie_title"), rs.getObject("movie_year", Integer.class)))
+        );
+        return existing;
+    }
+
+    private Map<PersonKey, Long> resolvePeople(String table, Set<PersonKey> keys){
+        Map<PersonKey, Long> ids = new HashMap<>();
+        if (keys.isEmpty()){
+            return ids;
+        }
+        String[] lastNames = keys.stream().map(PersonKey::lastName).distinct().toArray(String[]::new);
+        jdbcTemplate.query(
+                "select " + table + "_id as id, first_name, second_name, last_name, year_of_birth " +
+                        "from movies." + table + " where last_name = any(:lastNames)",
+                Map.of("lastNames", lastNames),
+                (RowCallbackHandler) rs -> {
+                    PersonKey key = new PersonKey(
+                            rs.getString("first_name"),
+                            blankToNull(rs.getString("second_name")),
+                            rs.getString("last_name"),
+                            rs.getObject("year_of_birth", Integer.class));
+                    if (keys.contains(key)){
+                        ids.putIfAbsent(key, rs.getLong("id"));
+                    }
+                }
+        );
+        List<PersonKey> missing = keys.stream().filter(key -> !ids.containsKey(key)).collect(Collectors.toList());
+        List<Long> reserved = reserveIds(table + "_" + table + "_id_seq", missing.size());
+        SqlParameterSource[] inserts = new SqlParameterSource[missing.size()];
+        for (int i = 0; i < missing.size(); i++){
+            PersonKey key = missing.get(i);
+            ids.put(key, reserved.get(i));
+            inserts[i] = new MapSqlParameterSource()
+                    .addValue("id", reserved.get(i))
+                    .addValue("firstName", key.firstName())
+                    .addValue("secondName", key.secondName())
+                    .addValue("lastName", key.lastName())
+                    .addValue("yearOfBirth", key.yearOfBirth());
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into movies." + table + " (" + table + "_id, first_name, second_name, last_name, year_of_birth) " +
+                        "values (:id, :firstName, :secondName, :lastName, :yearOfBirth)",
+                inserts);
+        return ids;
+    }
+
+    private Map<String, Long> resolveGenres(Set<String> names){
+        Map<String, Long> ids = new HashMap<>();
+        if (names.isEmpty()){
+            return ids;
+        }
+        Map<String, String> byNormalized = new LinkedHashMap<>();
+        names.forEach(name -> byNormalized.putIfAbsent(normalize(name), name.trim()));
+        jdbcTemplate.query(
+                "select genre_id, lower(name) as name from movies.genre where lower(name) = any(:names)",
+                Map.of("names", byNormalized.keySet().toArray(String[]::new)),
+                (RowCallbackHandler) rs -> ids.putIfAbsent(rs.getString("name"), rs.getLong("genre_id"))
+        );
+        List<String> missing = byNormalized.keySet().stream().filter(name -> !ids.containsKey(name)).collect(Collectors.toList());
+        if (missing.isEmpty()){
+            return ids;
+        }
+        List<Long> reserved = reserveIds("genre_genre_id_seq", missing.size());
+        SqlParameterSource[] inserts = new SqlParameterSource[missing.size()];
+        for (int i = 0; i < missing.size(); i++){
+            ids.put(missing.get(i), reserved.get(i));
+            inserts[i] = new MapSqlParameterSource()
+                    .addValue("id", reserved.get(i))
+                    .addValue("name", byNormalized.get(missing.get(i)));
+        }
+        jdbcTemplate.batchUpdate("insert into movies.genre (genre_id, name) values (:id, :name)", inserts);
+        genreCache.invalidateAfterCommit();
+        evictQueryCacheAfterCommit();
+        return ids;
+    }
+
+    // inserts through JdbcTemplate bypass Hibernate, so cached genre queries would not see the new rows
+    private void evictQueryCacheAfterCommit(){
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+            }
+        });
+    }
+
+    // sequences are shared with Hibernate's pooled optimizer, every nextval hands out the block [value - 49, value]
+    private List<Long> reserveIds(String sequence, int count){
+        if (count == 0){
+            return List.of();
+        }
+        List<Long> blocks = jdbcTemplate.queryForList(
+                "select nextval('movies." + sequence + "') from generate_series(1, :blocks)",
+                Map.of("blocks", (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE),
+                Long.class
+        );
+        List<Long> ids = new ArrayList<>(count);
+        for (Long hi : blocks){
+            for (long id = Math.max(1, hi - ID_BLOCK_SIZE + 1); id <= hi && ids.size() < count; id++){
+                ids.add(id);
+            }
+        }
+        while (ids.size() < count){
+            ids.addAll(reserveIds(sequence, count - ids.size()));
+        }
+        return ids;
+    }
+
+    private static String normalize(String genre){
+        return genre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String blankToNull(String value){
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private record ImportRow(long line, MovieImportDto movie) {
+    }
+
+    private record MovieKey(String title, Integer year) {
+        static MovieKey of(MovieImportDto movie){
+            return new MovieKey(movie.getTitle().trim(), movie.getYear());
+        }
+    }
+
+    private record PersonKey(String firstName, String secondName, String lastName, Integer yearOfBirth) {
+        static PersonKey of(PersonImportDto person){
+            return new PersonKey(
+                    person.getFirstName().trim(),
+                    blankToNull(person.getSecondName()),
+                    person.getLastName().trim(),
+                    person.getYearOfBirth());
+        }
+    }
+}
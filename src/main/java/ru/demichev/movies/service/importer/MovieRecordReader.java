@@ -0,0 +1,55 @@
+package ru.demichev.movies.service.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+// NDJSON has one record per line; a quoted CSV value may contain line breaks,
+// so a CSV record goes on until its quotes are balanced ("" escapes count twice and keep the balance)
+class MovieRecordReader {
+    static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    private final BufferedReader reader;
+    private final boolean quotedLineBreaks;
+    private long lineNumber;
+    private long recordLine;
+
+    MovieRecordReader(BufferedReader reader, boolean quotedLineBreaks) {
+        this.reader = reader;
+        this.quotedLineBreaks = quotedLineBreaks;
+    }
+
+    String next() throws IOException {
+        String line = reader.readLine();
+        if (line == null){
+            return null;
+        }
+        recordLine = ++lineNumber;
+        if (!quotedLineBreaks){
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        int quotes = quotes(line);
+        // an unterminated quote must not pull the rest of the payload into memory, the parser reports it instead
+        while (quotes % 2 != 0 && record.length() < MAX_RECORD_LENGTH && (line = reader.readLine()) != null){
+            lineNumber++;
+            record.append('\n').append(line);
+            quotes += quotes(line);
+        }
+        return record.toString();
+    }
+
+    // line the last record returned by next() starts on
+    long line() {
+        return recordLine;
+    }
+
+    private static int quotes(String line){
+        int count = 0;
+        for (int i = 0; i < line.length(); i++){
+            if (line.charAt(i) == '"'){
+                count++;
+            }
+        }
+        return count;
+    }
+}
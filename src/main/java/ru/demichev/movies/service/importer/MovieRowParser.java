@@ -0,0 +1,7 @@
+package ru.demichev.movies.service.importer;
+
+import ru.demichev.movies.dto.crt.MovieImportDto;
+
+public interface MovieRowParser {
+    MovieImportDto parse(String line);
+}
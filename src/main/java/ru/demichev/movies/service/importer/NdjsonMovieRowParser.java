@@ -0,0 +1,22 @@
+package ru.demichev.movies.service.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import ru.demichev.movies.dto.crt.MovieImportDto;
+
+public class NdjsonMovieRowParser implements MovieRowParser {
+    private final ObjectReader reader;
+
+    public NdjsonMovieRowParser(ObjectReader reader) {
+        this.reader = reader.forType(MovieImportDto.class);
+    }
+
+    @Override
+    public MovieImportDto parse(String line) {
+        try {
+            return reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.demichev.movies.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.demichev.movies.domain.Director;
+import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.repository.MovieRepository;
+import ru.demichev.movies.service.configuration.MovieServiceConfiguration;
+import ru.demichev.movies.testUtil.DBTest;
+import ru.demichev.movies.testUtil.IntegrationSuite;
+import ru.demichev.movies.testUtil.TestDBFacade;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@Tag("benchmark")
+@DBTest
+@ContextConfiguration(classes = MovieServiceConfiguration.class)
+public class ReadPathBenchmarkTest extends IntegrationSuite {
+    private static final int ROWS = 10_000;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private TestDBFacade db;
+
+    @BeforeEach
+    void beforeEach(){
+        db.cleanDatabase();
+        Director director = db.persist(new Director("Квентин", "Тарантино",1950));
+        db.persistAll(IntStream.range(0, ROWS)
+                .mapToObj(i -> new Movie("Фильм " + i, "описание", 2000, director))
+                .collect(Collectors.toList()));
+    }
+
+    @AfterEach
+    void afterEach(){
+        db.cleanDatabase();
+    }
+
+    @Test
+    void shouldLoadListCheaperOnReadOnlyPath(){
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Result entities = measure("read-write entities",
+                () -> readWrite.execute(status -> movieRepository.findAllMovieWithDirector().size()));
+        Result readOnlyEntities = measure("read-only entities",
+                () -> readOnly.execute(status -> movieRepository.findAllMovieWithDirector().size()));
+        Result projection = measure("read-only projection",
+                () -> readOnly.execute(status -> movieRepository.findTitlesWithDirectors().size()));
+
+        assertTrue(readOnlyEntities.allocatedBytes() < entities.allocatedBytes());
+        assertTrue(projection.allocatedBytes() < readOnlyEntities.allocatedBytes());
+    }
+
+    private Result measure(String name, IntSupplier body){
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++){
+            assertEquals(ROWS, body.getAsInt());
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long cpu = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++){
+            assertEquals(ROWS, body.getAsInt());
+        }
+        Result result = new Result(
+                (threads.getCurrentThreadAllocatedBytes() - allocated) / ITERATIONS,
+                (threads.getCurrentThreadCpuTime() - cpu) / ITERATIONS
+        );
+        log.info("{} x{}: {} KiB allocated, {} ms cpu per iteration",
+                name, ROWS, result.allocatedBytes() / 1024, result.cpuNanos() / 1_000_000);
+        return result;
+    }
+
+    private record Result(long allocatedBytes, long cpuNanos) {
+    }
+}
@@ -6,10 +6,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import ru.demichev.movies.domain.Actor;
 import ru.demichev.movies.dto.ActorDto;
+import ru.demichev.movies.dto.PageDto;
 import ru.demichev.movies.dto.crt.ActorCreateDto;
 import ru.demichev.movies.testUtil.E2ETest;
 import ru.demichev.movies.testUtil.IntegrationSuite;
@@ -17,6 +20,8 @@ import ru.demichev.movies.testUtil.TestDBFacade;
 import ru.demichev.movies.testUtil.TestRESTFacade;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,9 +45,33 @@ public class ActorControllerE2ETest extends IntegrationSuite {
     }
 
     @Test
-    void shouldFindAllSucceed(){
+    void shouldStreamExport(){
+        db.persistAll(IntStream.range(0, 2000)
+                .mapToObj(i -> new Actor("Актёр", "Номер " + i, 1970))
+                .collect(Collectors.toList()));
 
         ResponseEntity<List<ActorDto>> response = rest
+                .withBasicAuth("admin", "123")
+                .exchange(
+                        "/api/v1/movies/actor/export",
+                        HttpMethod.GET,
+                        null,
+                        new ParameterizedTypeReference<>(){}
+                );
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(response.getHeaders().getContentType()));
+        // a buffered body would be sent with its length, a streamed one goes out in chunks
+        assertEquals(-1, response.getHeaders().getContentLength());
+        assertEquals("chunked", response.getHeaders().getFirst(HttpHeaders.TRANSFER_ENCODING));
+        assertNotNull(response.getBody());
+        assertEquals(2003, response.getBody().size());
+        assertEquals(firstActor.getId(), response.getBody().get(0).getId());
+    }
+
+    @Test
+    void shouldFindAllSucceed(){
+
+        ResponseEntity<PageDto<ActorDto>> response = rest
                 .withBasicAuth("admin", "123")
                 .exchange(
                         "/api/v1/movies/actor",
@@ -52,7 +81,7 @@ public class ActorControllerE2ETest extends IntegrationSuite {
                 );
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertNotNull(response.getBody());
-        assertEquals(3, response.getBody().size());
+        assertEquals(3, response.getBody().getItems().size());
         assertEquals(3, db.count(Actor.class));
     }
 
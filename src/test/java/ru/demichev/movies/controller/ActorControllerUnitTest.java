@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -18,7 +19,9 @@ import ru.demichev.movies.dto.ActorDto;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.mapper.ActorMapper;
+import ru.demichev.movies.security.AuthenticationCache;
 import ru.demichev.movies.security.RoleCheckService;
+import ru.demichev.movies.security.TokenService;
 import ru.demichev.movies.service.ActorService;
 import ru.demichev.movies.service.UserAuthService;
 
@@ -51,6 +54,10 @@ public class ActorControllerUnitTest {
     @MockBean
     RoleCheckService roleCheckService;
     @MockBean
+    AuthenticationCache authenticationCache;
+    @MockBean
+    TokenService tokenService;
+    @MockBean
     private ActorService actorService;
 
     @MockBean
@@ -80,7 +87,7 @@ public class ActorControllerUnitTest {
         firstActor.setYearOfBirth(1976);
         secondActor.setId(2L);
 
-        doReturn(Arrays.asList(new Actor(), new Actor())).when(actorService).findAll();
+        doReturn(new SliceImpl<>(Arrays.asList(new Actor(), new Actor()))).when(actorService).findPage(any(), anyInt());
         doReturn(firstActor).doReturn(secondActor).when(actorMapper).toDto(any(Actor.class));
 
         this.mockMvc.perform(
@@ -89,10 +96,19 @@ public class ActorControllerUnitTest {
                 )
                 .andDo(print())
                 .andExpect(status().is2xxSuccessful())
-                .andExpect(content().json(List.of(mapper.writeValueAsString(firstActor), mapper.writeValueAsString(secondActor)).toString()))
+                .andExpect(content().json("{\"items\":" + List.of(mapper.writeValueAsString(firstActor), mapper.writeValueAsString(secondActor)).toString() + "}"))
         ;
     }
     @Test
+    public void whenViewerExportsShouldReturn403() throws Exception{
+        this.mockMvc.perform(
+                        get("/api/v1/movies/actor/export")
+                                .with(user("user").roles("VIEWER"))
+                ).andDo(print())
+                .andExpect(status().isForbidden());
+        verify(actorService, never()).exportActors(any());
+    }
+    @Test
     public void whenFindByIdShouldReturn404() throws Exception{
         when(actorService.findById(15L)).thenThrow(new NotFoundException("1"));
 
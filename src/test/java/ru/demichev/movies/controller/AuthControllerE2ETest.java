@@ -0,0 +1,96 @@
+package ru.demichev.movies.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import ru.demichev.movies.domain.Genre;
+import ru.demichev.movies.domain.Role;
+import ru.demichev.movies.domain.UserPrincipal;
+import ru.demichev.movies.dto.TokenDto;
+import ru.demichev.movies.dto.crt.LoginDto;
+import ru.demichev.movies.testUtil.E2ETest;
+import ru.demichev.movies.testUtil.IntegrationSuite;
+import ru.demichev.movies.testUtil.TestDBFacade;
+import ru.demichev.movies.testUtil.TestRESTFacade;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@E2ETest
+public class AuthControllerE2ETest extends IntegrationSuite {
+    @Autowired
+    private TestRESTFacade rest;
+    @Autowired
+    private TestDBFacade db;
+
+    private Genre genre;
+
+    @BeforeEach
+    void beforeEach(){
+        db.cleanDatabase();
+        Role role = db.persist(new Role(null, "ADMIN", null));
+        db.persist(new UserPrincipal("token_admin", "admin", "admin@movies.ru", new BCryptPasswordEncoder().encode("123"), role));
+        genre = db.persist(new Genre("Фантастика"));
+    }
+
+    @Test
+    void shouldAuthenticateWithIssuedToken(){
+        ResponseEntity<TokenDto> token = rest.exchange(
+                "/api/v1/auth/token",
+                HttpMethod.POST,
+                new LoginDto("token_admin", "123"),
+                TokenDto.class
+        );
+        assertEquals(HttpStatus.OK, token.getStatusCode());
+        assertNotNull(token.getBody());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token.getBody().getToken());
+        ResponseEntity<String> response = rest.exchange(
+                "/api/v1/movies/genre/" + genre.getId(),
+                HttpMethod.GET,
+                headers,
+                null,
+                String.class
+        );
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.SET_COOKIE));
+    }
+
+    @Test
+    void shouldRejectTamperedToken(){
+        ResponseEntity<TokenDto> token = rest.exchange(
+                "/api/v1/auth/token",
+                HttpMethod.POST,
+                new LoginDto("token_admin", "123"),
+                TokenDto.class
+        );
+        assertNotNull(token.getBody());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token.getBody().getToken() + "x");
+        ResponseEntity<String> response = rest.exchange(
+                "/api/v1/movies/genre/" + genre.getId(),
+                HttpMethod.GET,
+                headers,
+                null,
+                String.class
+        );
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
+    @Test
+    void shouldNotIssueTokenForBadPassword(){
+        ResponseEntity<String> response = rest.exchange(
+                "/api/v1/auth/token",
+                HttpMethod.POST,
+                new LoginDto("token_admin", "321"),
+                String.class
+        );
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+}
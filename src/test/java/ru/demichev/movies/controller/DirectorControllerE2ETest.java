@@ -10,6 +10,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import ru.demichev.movies.domain.Director;
 import ru.demichev.movies.dto.DirectorDto;
+import ru.demichev.movies.dto.PageDto;
 import ru.demichev.movies.dto.crt.DirectorCreateDto;
 import ru.demichev.movies.testUtil.E2ETest;
 import ru.demichev.movies.testUtil.IntegrationSuite;
@@ -43,7 +44,7 @@ public class DirectorControllerE2ETest extends IntegrationSuite {
     @Test
     void shouldFindAllSucceed(){
 
-        ResponseEntity<List<DirectorDto>> response = rest
+        ResponseEntity<PageDto<DirectorDto>> response = rest
                 .withBasicAuth("admin", "123")
                 .exchange(
                         "/api/v1/movies/director",
@@ -53,7 +54,7 @@ public class DirectorControllerE2ETest extends IntegrationSuite {
                 );
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertNotNull(response.getBody());
-        assertEquals(3, response.getBody().size());
+        assertEquals(3, response.getBody().getItems().size());
         assertEquals(3, db.count(Director.class));
     }
 
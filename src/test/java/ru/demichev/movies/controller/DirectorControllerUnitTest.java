@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -19,7 +20,9 @@ import ru.demichev.movies.dto.DirectorDto;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.mapper.DirectorMapper;
+import ru.demichev.movies.security.AuthenticationCache;
 import ru.demichev.movies.security.RoleCheckService;
+import ru.demichev.movies.security.TokenService;
 import ru.demichev.movies.service.DirectorService;
 import ru.demichev.movies.service.UserAuthService;
 
@@ -52,6 +55,10 @@ public class DirectorControllerUnitTest {
     @MockBean
     RoleCheckService roleCheckService;
     @MockBean
+    AuthenticationCache authenticationCache;
+    @MockBean
+    TokenService tokenService;
+    @MockBean
     private DirectorService directorService;
 
     @MockBean
@@ -81,7 +88,7 @@ public class DirectorControllerUnitTest {
         firstDirector.setYearOfBirth(1968);
         secondDirector.setId(2L);
 
-        doReturn(Arrays.asList(new Director(), new Director())).when(directorService).findAll();
+        doReturn(new SliceImpl<>(Arrays.asList(new Director(), new Director()))).when(directorService).findPage(any(), anyInt());
         doReturn(firstDirector).doReturn(secondDirector).when(directorMapper).toDto(any(Director.class));
 
         this.mockMvc.perform(
@@ -90,7 +97,7 @@ public class DirectorControllerUnitTest {
                 )
                 .andDo(print())
                 .andExpect(status().is2xxSuccessful())
-                .andExpect(content().json(List.of(mapper.writeValueAsString(firstDirector), mapper.writeValueAsString(secondDirector)).toString()))
+                .andExpect(content().json("{\"items\":" + List.of(mapper.writeValueAsString(firstDirector), mapper.writeValueAsString(secondDirector)).toString() + "}"))
         ;
     }
     @Test
@@ -8,8 +8,12 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import ru.demichev.movies.domain.Director;
 import ru.demichev.movies.domain.Genre;
+import ru.demichev.movies.domain.Movie;
 import ru.demichev.movies.dto.GenreDto;
+import ru.demichev.movies.dto.MovieDto;
+import ru.demichev.movies.dto.PageDto;
 import ru.demichev.movies.dto.crt.GenreCreateDto;
 import ru.demichev.movies.testUtil.E2ETest;
 import ru.demichev.movies.testUtil.IntegrationSuite;
@@ -17,6 +21,8 @@ import ru.demichev.movies.testUtil.TestDBFacade;
 import ru.demichev.movies.testUtil.TestRESTFacade;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,7 +46,7 @@ public class GenreControllerE2ETest extends IntegrationSuite {
     @Test
     void shouldFindAllSucceed(){
 
-        ResponseEntity<List<GenreDto>> response = rest
+        ResponseEntity<PageDto<GenreDto>> response = rest
                 .withBasicAuth("admin", "123")
                 .exchange(
                         "/api/v1/movies/genre",
@@ -50,7 +56,7 @@ public class GenreControllerE2ETest extends IntegrationSuite {
                 );
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertNotNull(response.getBody());
-        assertEquals(3, response.getBody().size());
+        assertEquals(3, response.getBody().getItems().size());
         assertEquals(3, db.count(Genre.class));
     }
 
@@ -280,6 +286,55 @@ public class GenreControllerE2ETest extends IntegrationSuite {
         assertEquals(2, db.count(Genre.class));
     }
 
+    @Test
+    void shouldReturnMoviesFromCachedGenre(){
+        Director director = db.persist(new Director("Джеймс", "Кэмерон", 1954));
+        Movie movie = db.persist(new Movie("Аватар", "про другую планету", 2009, director));
+        Genre drama = db.persist(new Genre(null, "Драма", Set.of(movie)));
+
+        for (int i = 0; i < 2; i++){
+            ResponseEntity<GenreDto> byId = rest
+                    .withBasicAuth("admin", "123")
+                    .exchange(
+                            "/api/v1/movies/genre/" + drama.getId(),
+                            HttpMethod.GET,
+                            null,
+                            GenreDto.class
+                    );
+            assertTrue(byId.getStatusCode().is2xxSuccessful());
+            assertEquals(Set.of("Аватар"), titles(byId.getBody()));
+        }
+
+        ResponseEntity<GenreDto> byName = rest
+                .withBasicAuth("admin", "123")
+                .exchange(
+                        "/api/v1/movies/genre/name?name=Драма",
+                        HttpMethod.GET,
+                        null,
+                        GenreDto.class
+                );
+        assertTrue(byName.getStatusCode().is2xxSuccessful());
+        assertEquals(Set.of("Аватар"), titles(byName.getBody()));
+
+        ResponseEntity<List<GenreDto>> afterDelete = rest
+                .withBasicAuth("admin", "123")
+                .exchange(
+                        "/api/v1/movies/genre/" + firstGenre.getId(),
+                        HttpMethod.DELETE,
+                        null,
+                        new ParameterizedTypeReference<>(){}
+                );
+        assertTrue(afterDelete.getStatusCode().is2xxSuccessful());
+        // the genre list comes from the cache and carries names only
+        GenreDto remaining = afterDelete.getBody()
+                .stream()
+                .filter(genre -> genre.getId().equals(drama.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Драма", remaining.getName());
+        assertTrue(remaining.getMovies().isEmpty());
+    }
+
     @Test
     void shouldDeleteGenreError404(){
         ResponseEntity<GenreDto> response = rest
@@ -294,4 +349,7 @@ public class GenreControllerE2ETest extends IntegrationSuite {
         assertEquals(3, db.count(Genre.class));
     }
 
+    private static Set<String> titles(GenreDto genre){
+        return genre.getMovies().stream().map(MovieDto::getTitle).collect(Collectors.toSet());
+    }
 }
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -18,7 +19,9 @@ import ru.demichev.movies.dto.GenreDto;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.mapper.GenreMapper;
+import ru.demichev.movies.security.AuthenticationCache;
 import ru.demichev.movies.security.RoleCheckService;
+import ru.demichev.movies.security.TokenService;
 import ru.demichev.movies.service.GenreService;
 import ru.demichev.movies.service.UserAuthService;
 
@@ -54,6 +57,10 @@ class GenreControllerUnitTest {
     @MockBean
     RoleCheckService roleCheckService;
     @MockBean
+    AuthenticationCache authenticationCache;
+    @MockBean
+    TokenService tokenService;
+    @MockBean
     private GenreService genreService;
 
     @MockBean
@@ -78,7 +85,7 @@ class GenreControllerUnitTest {
         GenreDto secondGenre = new GenreDto();
         secondGenre.setName("Мультфильм");
         secondGenre.setId(2L);
-        doReturn(Arrays.asList(new Genre(), new Genre())).when(genreService).findAll();
+        doReturn(new SliceImpl<>(Arrays.asList(new Genre(), new Genre()))).when(genreService).findPage(any(), any(), anyInt());
         doReturn(firstGenre).doReturn(secondGenre).when(genreMapper).toDto(any(Genre.class));
 
         this.mockMvc.perform(
@@ -88,7 +95,7 @@ class GenreControllerUnitTest {
                 )
                 .andDo(print())
                 .andExpect(status().is2xxSuccessful())
-                .andExpect(content().json(List.of(mapper.writeValueAsString(firstGenre), mapper.writeValueAsString(secondGenre)).toString()))
+                .andExpect(content().json("{\"items\":" + List.of(mapper.writeValueAsString(firstGenre), mapper.writeValueAsString(secondGenre)).toString() + "}"))
         ;
     }
     @Test
@@ -153,7 +160,7 @@ class GenreControllerUnitTest {
         GenreDto secondGenre = new GenreDto();
         secondGenre.setName("Биография");
         secondGenre.setId(2L);
-        doReturn(Arrays.asList(new Genre(), new Genre())).when(genreService).findByContainingPrefix("б");
+        doReturn(Arrays.asList(new Genre(), new Genre())).when(genreService).findByContainingPrefix("б", 20);
         doReturn(firstGenre).doReturn(secondGenre).when(genreMapper).toDto(any(Genre.class));
         this.mockMvc.perform(
                         get("/api/v1/movies/genre/names")
@@ -362,5 +369,32 @@ class GenreControllerUnitTest {
         ;
     }
 
+    @Test
+    public void whenFindTopWithMalformedNumbersShouldReturn400() throws Exception{
+        this.mockMvc.perform(
+                        get("/api/v1/movies/genre/top?genre_id=1,x&count=3")
+                                .with(user("admin").roles("VIEWER"))
+                ).andDo(print())
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(
+                        get("/api/v1/movies/genre/top?genre_id=1,2&count=ten")
+                                .with(user("admin").roles("VIEWER"))
+                ).andDo(print())
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(
+                        get("/api/v1/movies/genre/top?genre_id=1&count=101")
+                                .with(user("admin").roles("VIEWER"))
+                ).andDo(print())
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(genreService);
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void whenFindByMalformedIdShouldReturn400() throws Exception{
+        this.mockMvc.perform(
+                        get("/api/v1/movies/genre/abc")
+                                .with(user("admin").roles("VIEWER"))
+                ).andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,51 @@
+package ru.demichev.movies.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.demichev.movies.dto.MovieDto;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonExportTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldWriteItemsWhileSourceIsStillProducing() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicInteger writtenBeforeLastItem = new AtomicInteger();
+
+        WebAsyncTask<Void> task = JsonExport.<MovieDto>array(objectMapper, response, consumer -> {
+            for (long id = 1; id <= 10_000; id++){
+                if (id == 10_000){
+                    writtenBeforeLastItem.set(response.getContentAsByteArray().length);
+                }
+                consumer.accept(new MovieDto(id, "Фильм " + id));
+            }
+        });
+        assertEquals(JsonExport.TIMEOUT.toMillis(), task.getTimeout());
+        task.getCallable().call();
+
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        byte[] body = response.getContentAsByteArray();
+        // the generator flushes its buffer as it fills, so most of the array is out before the source ends
+        assertTrue(writtenBeforeLastItem.get() > body.length / 2,
+                writtenBeforeLastItem.get() + " of " + body.length + " bytes written before the last item");
+        List<MovieDto> movies = objectMapper.readValue(body, new TypeReference<>() {});
+        assertEquals(10_000, movies.size());
+        assertEquals("Фильм 10000", movies.get(9_999).getTitle());
+    }
+
+    @Test
+    void shouldWriteEmptyArray() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        JsonExport.<MovieDto>array(objectMapper, response, consumer -> {}).getCallable().call();
+        assertEquals("[]", response.getContentAsString());
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import ru.demichev.movies.domain.Director;
 import ru.demichev.movies.domain.Movie;
 import ru.demichev.movies.dto.MovieDto;
+import ru.demichev.movies.dto.PageDto;
 import ru.demichev.movies.dto.crt.MovieCreateDto;
 import ru.demichev.movies.service.DirectorService;
 import ru.demichev.movies.testUtil.E2ETest;
@@ -66,7 +67,7 @@ public class MovieControllerE2ETest extends IntegrationSuite {
     @Test
     void shouldFindAllSucceed(){
 
-        ResponseEntity<List<MovieDto>> response = rest
+        ResponseEntity<PageDto<MovieDto>> response = rest
                 .withBasicAuth("admin", "123")
                 .exchange(
                         "/api/v1/movies/movie",
@@ -76,10 +77,58 @@ public class MovieControllerE2ETest extends IntegrationSuite {
                 );
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertNotNull(response.getBody());
-        assertEquals(3, response.getBody().size());
+        assertEquals(3, response.getBody().getItems().size());
         assertEquals(3, db.count(Movie.class));
     }
 
+    @Test
+    void shouldFindAllByPagesSucceed(){
+
+        ResponseEntity<PageDto<MovieDto>> firstPage = rest
+                .withBasicAuth("admin", "123")
+                .exchange(
+                        "/api/v1/movies/movie?limit=2",
+                        HttpMethod.GET,
+                        null,
+                        new ParameterizedTypeReference<>(){}
+                );
+        assertTrue(firstPage.getStatusCode().is2xxSuccessful());
+        assertNotNull(firstPage.getBody());
+        assertEquals(2, firstPage.getBody().getItems().size());
+        assertNotNull(firstPage.getBody().getNext());
+
+        ResponseEntity<PageDto<MovieDto>> secondPage = rest
+                .withBasicAuth("admin", "123")
+                .exchange(
+                        "/api/v1/movies/movie?limit=2&cursor=" + firstPage.getBody().getNext(),
+                        HttpMethod.GET,
+                        null,
+                        new ParameterizedTypeReference<>(){}
+                );
+        assertTrue(secondPage.getStatusCode().is2xxSuccessful());
+        assertNotNull(secondPage.getBody());
+        assertEquals(1, secondPage.getBody().getItems().size());
+        assertNull(secondPage.getBody().getNext());
+    }
+
+    @Test
+    void shouldSearchSucceed(){
+
+        ResponseEntity<PageDto<MovieDto>> response = rest
+                .withBasicAuth("admin", "123")
+                .exchange(
+                        "/api/v1/movies/movie/search?q=будущее",
+                        HttpMethod.GET,
+                        null,
+                        new ParameterizedTypeReference<>(){}
+                );
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().getItems().size());
+        assertEquals("Терминатор", response.getBody().getItems().get(0).getTitle());
+        assertNull(response.getBody().getNext());
+    }
+
     @Test
     void shouldFindByIdSucceed(){
 
@@ -151,6 +200,22 @@ public class MovieControllerE2ETest extends IntegrationSuite {
         assertEquals(3, db.count(Movie.class));
     }
 
+    @Test
+    void shouldUpsertMovieError404WhenDirectorIsUnknown(){
+        MovieCreateDto movie = new MovieCreateDto("Аватар: Путь воды", 2022, "про океан", director.getId() + 1000, 7);
+
+        ResponseEntity<MovieDto> response = rest
+                .withBasicAuth("admin", "123")
+                .exchange(
+                        "/api/v1/movies/movie/upsert",
+                        HttpMethod.PUT,
+                        new HttpEntity<>(movie),
+                        MovieDto.class
+                );
+        assertEquals(404, response.getStatusCodeValue());
+        assertEquals(3, db.count(Movie.class));
+    }
+
     @Test
     void shouldUpdateMovieSucceed(){
         Movie Movie = new Movie("Терминатор-2", "про будущее",1991,firstDirector);
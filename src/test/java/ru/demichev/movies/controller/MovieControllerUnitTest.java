@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -19,7 +20,9 @@ import ru.demichev.movies.dto.MovieDto;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.mapper.MovieMapper;
+import ru.demichev.movies.security.AuthenticationCache;
 import ru.demichev.movies.security.RoleCheckService;
+import ru.demichev.movies.security.TokenService;
 import ru.demichev.movies.service.MovieService;
 import ru.demichev.movies.service.UserAuthService;
 
@@ -53,6 +56,10 @@ public class MovieControllerUnitTest {
     @MockBean
     RoleCheckService roleCheckService;
     @MockBean
+    AuthenticationCache authenticationCache;
+    @MockBean
+    TokenService tokenService;
+    @MockBean
     private MovieService movieService;
     @MockBean
     private MovieMapper movieMapper;
@@ -81,7 +88,7 @@ public class MovieControllerUnitTest {
         firstMovie.setYear(2020);
         secondMovie.setId(2L);
 
-        doReturn(Arrays.asList(new Movie(), new Movie())).when(movieService).findAll();
+        doReturn(new SliceImpl<>(Arrays.asList(new Movie(), new Movie()))).when(movieService).findPage(any(), anyInt());
         doReturn(firstMovie).doReturn(secondMovie).when(movieMapper).toDto(any(Movie.class));
 
         this.mockMvc.perform(
@@ -90,10 +97,20 @@ public class MovieControllerUnitTest {
                 )
                 .andDo(print())
                 .andExpect(status().is2xxSuccessful())
-                .andExpect(content().json(List.of(mapper.writeValueAsString(firstMovie), mapper.writeValueAsString(secondMovie)).toString()))
+                .andExpect(content().json("{\"items\":" + List.of(mapper.writeValueAsString(firstMovie), mapper.writeValueAsString(secondMovie)).toString() + "}"))
         ;
     }
     @Test
+    public void whenFindAllWithTooBigLimitShouldReturn400() throws Exception {
+        this.mockMvc.perform(
+                        get("/api/v1/movies/movie")
+                                .param("limit", "100000")
+                                .with(user("user").roles("VIEWER"))
+                )
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+    @Test
     public void whenFindByIdShouldReturn404() throws Exception{
         when(movieService.findById(15L)).thenThrow(new NotFoundException("1"));
 
@@ -0,0 +1,179 @@
+package ru.demichev.movies.datasource;
+
+import com.zaxxer.hikari.pool.HikariPool;
+import org.hibernate.dialect.H2Dialect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadReplicaRoutingDataSourceTest {
+    private final DataSource primary = database("primary");
+    private final DataSource replica = database("replica");
+    private final AtomicReference<String> currentUser = new AtomicReference<>();
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void beforeEach(){
+        currentUser.set(null);
+        use(List.of(replica), Duration.ZERO);
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplica(){
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+        assertEquals("primary", readWrite.execute(status -> whoAmI()));
+        assertEquals("primary", whoAmI());
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhileReplicaIsDown(){
+        AtomicInteger attempts = new AtomicInteger();
+        DataSource broken = new DriverManagerDataSource("jdbc:h2:mem:broken") {
+            @Override
+            public java.sql.Connection getConnection() throws SQLException {
+                attempts.incrementAndGet();
+                throw new SQLException("replica is down");
+            }
+        };
+        use(List.of(broken, replica), Duration.ZERO);
+
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+        assertEquals(1, attempts.get());
+
+        use(List.of(broken), Duration.ZERO);
+        assertEquals("primary", readOnly.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaPoolFailsToStart(){
+        DataSource broken = failingToStart();
+        use(List.of(broken), Duration.ZERO);
+
+        assertEquals("primary", readOnly.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void shouldRouteJpaReadOnlyTransactionsToReplica(){
+        EntityManagerFactory entityManagerFactory = entityManagerFactory(routing(List.of(replica), Duration.ZERO));
+        try {
+            JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            TransactionTemplate jpaReadOnly = new TransactionTemplate(transactionManager);
+            jpaReadOnly.setReadOnly(true);
+
+            assertEquals("replica", jpaReadOnly.execute(status -> whoAmI(entityManager)));
+            assertEquals("primary", new TransactionTemplate(transactionManager).execute(status -> whoAmI(entityManager)));
+        } finally {
+            entityManagerFactory.close();
+        }
+    }
+
+    @Test
+    void shouldFallBackToPrimaryInJpaTransactions(){
+        DataSource broken = failingToStart();
+        EntityManagerFactory entityManagerFactory = entityManagerFactory(routing(List.of(broken), Duration.ZERO));
+        try {
+            TransactionTemplate jpaReadOnly = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+            jpaReadOnly.setReadOnly(true);
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+
+            assertEquals("primary", jpaReadOnly.execute(status -> whoAmI(entityManager)));
+        } finally {
+            entityManagerFactory.close();
+        }
+    }
+
+    @Test
+    void shouldReadOwnWritesFromPrimary(){
+        use(List.of(replica), Duration.ofMinutes(1));
+
+        currentUser.set("editor");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("update whoami set name = name"));
+        assertEquals("primary", readOnly.execute(status -> whoAmI()));
+
+        currentUser.set("viewer");
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+    }
+
+    private void use(List<DataSource> replicas, Duration readYourWritesWindow){
+        DataSource dataSource = routing(replicas, readYourWritesWindow);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private DataSource routing(List<DataSource> replicas, Duration readYourWritesWindow){
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(
+                primary,
+                replicas,
+                Duration.ofMinutes(1),
+                readYourWritesWindow,
+                currentUser::get,
+                Clock.systemUTC()
+        ));
+    }
+
+    private static DataSource failingToStart(){
+        return new DriverManagerDataSource("jdbc:h2:mem:broken") {
+            @Override
+            public java.sql.Connection getConnection() {
+                throw new HikariPool.PoolInitializationException(new SQLException("replica is down"));
+            }
+        };
+    }
+
+    private static EntityManagerFactory entityManagerFactory(DataSource dataSource){
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan(ReadReplicaRoutingDataSourceTest.class.getPackageName());
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.dialect", H2Dialect.class.getName()));
+        factoryBean.afterPropertiesSet();
+        return factoryBean.getObject();
+    }
+
+    private static String whoAmI(EntityManager entityManager){
+        return (String) entityManager.createNativeQuery("select name from whoami").getSingleResult();
+    }
+
+    private String whoAmI(){
+        return jdbcTemplate.queryForObject("select name from whoami", String.class);
+    }
+
+    private static DataSource database(String name){
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists whoami (name varchar(16))");
+        jdbcTemplate.update("delete from whoami");
+        jdbcTemplate.update("insert into whoami values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,206 @@
+package ru.demichev.movies.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.demichev.movies.dto.crt.MovieActorLinkDto;
+import ru.demichev.movies.dto.crt.MovieCreateDto;
+import ru.demichev.movies.testUtil.CatalogGenerator;
+import ru.demichev.movies.testUtil.E2ETest;
+import ru.demichev.movies.testUtil.IntegrationSuite;
+import ru.demichev.movies.testUtil.TestDBFacade;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@Tag("loadtest")
+@E2ETest
+public class CatalogLoadTest extends IntegrationSuite {
+    private static final int MOVIES = Integer.getInteger("loadtest.movies", 100_000);
+    private static final int ACTORS = Integer.getInteger("loadtest.actors", 20_000);
+    private static final long LINKS = Long.getLong("loadtest.links", 500_000L);
+    private static final int DIRECTORS = Integer.getInteger("loadtest.directors", 1_000);
+    private static final int GENRES = Integer.getInteger("loadtest.genres", 40);
+    private static final long SEED = Long.getLong("loadtest.seed", 42L);
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 16);
+    private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT1M"));
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TestDBFacade db;
+    @Autowired
+    private Environment environment;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String authorization = "Basic " + Base64.getEncoder().encodeToString("admin:123".getBytes(StandardCharsets.UTF_8));
+
+    @BeforeEach
+    void beforeEach(){
+        db.cleanDatabase();
+        CatalogGenerator generator = new CatalogGenerator(new CatalogGenerator.Spec(MOVIES, ACTORS, DIRECTORS, GENRES, LINKS, SEED));
+        jdbcTemplate.execute((ConnectionCallback<Long>) generator::load);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterEach
+    void afterEach(){
+        db.cleanDatabase();
+    }
+
+    @Test
+    void shouldServeMixedTrafficOnSyntheticCatalog() throws Exception {
+        List<Endpoint> endpoints = List.of(
+                new Endpoint("GET /movie", 20, () -> get("/movie?limit=50")),
+                new Endpoint("GET /movie/{id}", 30, () -> get("/movie/" + randomId(MOVIES))),
+                new Endpoint("GET /movie/search", 10, () -> get("/movie/search?q=synthetic&limit=20")),
+                new Endpoint("GET /actor/{id}", 20, () -> get("/actor/" + randomId(ACTORS))),
+                new Endpoint("GET /actor/movie/{id}?assigned=false", 10,
+                        () -> get("/actor/movie/" + randomId(MOVIES) + "?assigned=false&prefix=num&limit=20")),
+                new Endpoint("PUT /movie", 5, () -> send("PUT", "/movie", new MovieCreateDto(
+                        "Load movie " + UUID.randomUUID(), 2020, "created by load test", randomId(DIRECTORS), 5))),
+                new Endpoint("POST /movie/actors/assign", 5, () -> send("POST", "/movie/actors/assign",
+                        List.of(new MovieActorLinkDto(randomId(MOVIES), randomId(ACTORS)))))
+        );
+        int totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+
+        long deadline = System.nanoTime() + DURATION.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < THREADS; i++){
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline){
+                    call(pick(endpoints, totalWeight));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(DURATION.toSeconds() + 60, TimeUnit.SECONDS));
+
+        long requests = 0;
+        long errors = 0;
+        for (Endpoint endpoint : endpoints){
+            Timer timer = registry.timer("loadtest.requests", "endpoint", endpoint.name());
+            long failed = (long) registry.counter("loadtest.errors", "endpoint", endpoint.name()).count();
+            report(endpoint.name(), timer, failed);
+            requests += timer.count();
+            errors += failed;
+        }
+        log.info("Total: {} requests, {} errors, {} req/s", requests, errors,
+                String.format("%.1f", requests / (double) DURATION.toSeconds()));
+
+        assertTrue(requests > 0);
+        assertTrue(errors <= requests * MAX_ERROR_RATE, String.format("%s of %s requests failed", errors, requests));
+    }
+
+    private void call(Endpoint endpoint){
+        Timer timer = Timer.builder("loadtest.requests")
+                .tag("endpoint", endpoint.name())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .serviceLevelObjectives(Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100),
+                        Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1))
+                .register(registry);
+        Counter errors = registry.counter("loadtest.errors", "endpoint", endpoint.name());
+        long started = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(endpoint.request().build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400){
+                errors.increment();
+            }
+        } catch (Exception e){
+            errors.increment();
+        } finally {
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void report(String name, Timer timer, long errors){
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        StringBuilder percentiles = new StringBuilder();
+        for (ValueAtPercentile percentile : snapshot.percentileValues()){
+            percentiles.append(String.format(" p%.0f=%.1fms", percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        StringBuilder histogram = new StringBuilder();
+        double previous = 0;
+        for (CountAtBucket bucket : snapshot.histogramCounts()){
+            histogram.append(String.format(" <=%.0fms:%.0f", bucket.bucket(TimeUnit.MILLISECONDS), bucket.count() - previous));
+            previous = bucket.count();
+        }
+        histogram.append(String.format(" >1000ms:%.0f", snapshot.count() - previous));
+        log.info("{}: {} requests, {} errors, {} req/s, mean={}ms max={}ms{} |{}",
+                name, timer.count(), errors,
+                String.format("%.1f", timer.count() / (double) DURATION.toSeconds()),
+                String.format("%.1f", timer.mean(TimeUnit.MILLISECONDS)),
+                String.format("%.1f", timer.max(TimeUnit.MILLISECONDS)),
+                percentiles, histogram);
+    }
+
+    private HttpRequest.Builder get(String path){
+        return request(path).GET();
+    }
+
+    private HttpRequest.Builder send(String method, String path, Object body){
+        try {
+            return request(path)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (Exception e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path){
+        return HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + environment.getProperty("local.server.port") + "/api/v1/movies" + path))
+                .header("Authorization", authorization)
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private static long randomId(int max){
+        return ThreadLocalRandom.current().nextLong(1, max + 1L);
+    }
+
+    private static Endpoint pick(List<Endpoint> endpoints, int totalWeight){
+        int point = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints){
+            point -= endpoint.weight();
+            if (point < 0){
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private record Endpoint(String name, int weight, Supplier<HttpRequest.Builder> request) {
+    }
+}
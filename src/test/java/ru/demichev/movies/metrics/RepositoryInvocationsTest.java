@@ -0,0 +1,23 @@
+package ru.demichev.movies.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RepositoryInvocationsTest {
+
+    @Test
+    void shouldExposeRepositoryMethodOnlyDuringInvocation() {
+        ProxyFactory proxyFactory = new ProxyFactory((Supplier<String>) RepositoryInvocations::current);
+        proxyFactory.addInterface(Supplier.class);
+        proxyFactory.addAdvice(RepositoryInvocations.interceptor(Supplier.class));
+        @SuppressWarnings("unchecked")
+        Supplier<String> proxy = (Supplier<String>) proxyFactory.getProxy();
+
+        assertEquals("Supplier.get", proxy.get());
+        assertNull(RepositoryInvocations.current());
+    }
+}
@@ -0,0 +1,39 @@
+package ru.demichev.movies.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestMetricsFilterTest {
+
+    @Test
+    void shouldRecordSqlStatementsPerRequest() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", registry);
+        RequestMetricsFilter filter = new RequestMetricsFilter(beanFactory.getBeanProvider(MeterRegistry.class));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/movies/movie/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/movies/movie/{id}");
+            RequestSqlStatistics.current().record(1_000_000);
+            RequestSqlStatistics.current().record(1_000_000);
+        });
+
+        assertNull(RequestSqlStatistics.current());
+        assertTrue(response.getHeader(ServerTiming.HEADER).startsWith("sql;desc=\"2 statements\";dur=2.0"));
+        DistributionSummary statements = registry.get("http.server.requests.sql.statements")
+                .tag("uri", "/api/v1/movies/movie/{id}")
+                .summary();
+        assertEquals(1, statements.count());
+        assertEquals(2.0, statements.totalAmount());
+    }
+}
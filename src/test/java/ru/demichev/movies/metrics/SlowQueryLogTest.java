@@ -0,0 +1,125 @@
+package ru.demichev.movies.metrics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlowQueryLogTest {
+    // the writer never drains, so offered entries stay in the queue
+    private static final ThreadFactory IDLE_WRITER = runnable -> new Thread(() -> {});
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SlowQueryLog.class);
+    private final Level level = logger.getLevel();
+
+    @AfterEach
+    void afterEach(){
+        logger.setLevel(level);
+    }
+
+    @Test
+    void shouldTreatQueriesFromThresholdAsSlow(){
+        SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ofMillis(200), 0, 10, IDLE_WRITER);
+
+        assertFalse(slowQueryLog.isSlow(199));
+        assertTrue(slowQueryLog.isSlow(200));
+        assertTrue(slowQueryLog.isSlow(5_000));
+    }
+
+    @Test
+    void shouldSampleAtConfiguredRate(){
+        SlowQueryLog never = new SlowQueryLog(Duration.ofMillis(200), 0, 10, IDLE_WRITER);
+        SlowQueryLog always = new SlowQueryLog(Duration.ofMillis(200), 1, 10, IDLE_WRITER);
+        SlowQueryLog half = new SlowQueryLog(Duration.ofMillis(200), 0.5, 10, IDLE_WRITER);
+
+        assertTrue(IntStream.range(0, 1000).noneMatch(i -> never.isSampled()));
+        assertTrue(IntStream.range(0, 1000).allMatch(i -> always.isSampled()));
+        long sampled = IntStream.range(0, 10_000).filter(i -> half.isSampled()).count();
+        assertTrue(sampled > 4_000 && sampled < 6_000, "sampled " + sampled);
+    }
+
+    @Test
+    void shouldCountEntriesDroppedWhenQueueIsFull(){
+        SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ofMillis(200), 0, 2, IDLE_WRITER);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        slowQueryLog.bindTo(registry);
+
+        for (int i = 0; i < 5; i++){
+            slowQueryLog.offer(new SlowQueryLog.Entry(true, 300, "caller", "select 1", null));
+        }
+
+        assertEquals(3, slowQueryLog.getDropped());
+        assertEquals(3.0, registry.get("sql.slow_query.dropped").functionCounter().count());
+    }
+
+    @Test
+    void shouldOfferSlowQueriesWithoutParametersAboveDebug() throws Exception {
+        logger.setLevel(Level.INFO);
+        List<SlowQueryLog.Entry> entries = new ArrayList<>();
+        SlowQueryListener listener = new SlowQueryListener(recording(entries));
+
+        listener.afterQuery(execution(100), List.of(query("select 1")));
+        listener.afterQuery(execution(300), List.of(query("update movies.user set password = ?", "$2a$10$hash")));
+
+        assertEquals(1, entries.size());
+        SlowQueryLog.Entry entry = entries.get(0);
+        assertTrue(entry.slow());
+        assertEquals(300, entry.elapsedMillis());
+        assertEquals("update movies.user set password = ?", entry.query());
+        assertNull(entry.parameters());
+    }
+
+    @Test
+    void shouldOfferParametersAtDebug() throws Exception {
+        logger.setLevel(Level.DEBUG);
+        List<SlowQueryLog.Entry> entries = new ArrayList<>();
+        SlowQueryListener listener = new SlowQueryListener(recording(entries));
+
+        listener.afterQuery(execution(300), List.of(query("select * from movies.movie where movie_title = ?", "a".repeat(150))));
+
+        assertEquals(List.of(List.of("a".repeat(100) + "...")), entries.get(0).parameters());
+    }
+
+    private static SlowQueryLog recording(List<SlowQueryLog.Entry> entries){
+        return new SlowQueryLog(Duration.ofMillis(200), 0, 10, IDLE_WRITER) {
+            @Override
+            void offer(Entry entry) {
+                entries.add(entry);
+            }
+        };
+    }
+
+    private static ExecutionInfo execution(long elapsedMillis){
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMillis);
+        return executionInfo;
+    }
+
+    private static QueryInfo query(String sql, String... parameters) throws NoSuchMethodException {
+        QueryInfo queryInfo = new QueryInfo(sql);
+        if (parameters.length > 0){
+            List<ParameterSetOperation> operations = new ArrayList<>();
+            for (int i = 0; i < parameters.length; i++){
+                operations.add(new ParameterSetOperation(
+                        PreparedStatement.class.getMethod("setString", int.class, String.class),
+                        new Object[]{i + 1, parameters[i]}));
+            }
+            queryInfo.getParametersList().add(operations);
+        }
+        return queryInfo;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.demichev.movies.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import ru.demichev.movies.domain.UserPrincipal;
+import ru.demichev.movies.mapper.UserMapper;
+import ru.demichev.movies.repository.UserRepository;
+import ru.demichev.movies.service.impl.UserServiceImpl;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CachingAuthenticationProviderTest {
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private final AtomicInteger passwordChecks = new AtomicInteger();
+    private final AtomicLong nanos = new AtomicLong();
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private AuthenticationCache authenticationCache;
+    private CachingAuthenticationProvider provider;
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void beforeEach(){
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                passwordChecks.incrementAndGet();
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        DaoAuthenticationProvider delegate = new DaoAuthenticationProvider();
+        delegate.setPasswordEncoder(passwordEncoder);
+        delegate.setUserDetailsService(new InMemoryUserDetailsManager(
+                User.withUsername("editor").password(passwordEncoder.encode("secret")).roles("EDITOR").build()));
+
+        authenticationCache = new AuthenticationCache(TTL, 100, nanos::get);
+        provider = new CachingAuthenticationProvider(delegate, authenticationCache);
+        userService = new UserServiceImpl(userRepository, mock(UserMapper.class), authenticationCache);
+    }
+
+    @Test
+    void shouldSkipPasswordCheckOnCacheHit(){
+        Authentication first = provider.authenticate(token("editor", "secret"));
+        Authentication second = provider.authenticate(token("editor", "secret"));
+
+        assertEquals(1, passwordChecks.get());
+        assertTrue(second.isAuthenticated());
+        assertEquals("editor", second.getName());
+        assertEquals(first.getAuthorities(), second.getAuthorities());
+        assertNull(second.getCredentials());
+    }
+
+    @Test
+    void shouldRejectWrongPasswordWhenEntryIsCached(){
+        provider.authenticate(token("editor", "secret"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("editor", "wrong")));
+        assertEquals(2, passwordChecks.get());
+    }
+
+    @Test
+    void shouldInvalidateEntryOnUserUpdate(){
+        provider.authenticate(token("editor", "secret"));
+        UserPrincipal user = user();
+        when(userRepository.save(any())).thenReturn(user);
+
+        userService.updateUser(user);
+        provider.authenticate(token("editor", "secret"));
+
+        assertEquals(2, passwordChecks.get());
+    }
+
+    @Test
+    void shouldInvalidateEntryOnUserDelete(){
+        provider.authenticate(token("editor", "secret"));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user()));
+
+        userService.deleteUser(1L);
+        provider.authenticate(token("editor", "secret"));
+
+        assertEquals(2, passwordChecks.get());
+    }
+
+    @Test
+    void shouldExpireEntry(){
+        provider.authenticate(token("editor", "secret"));
+        nanos.addAndGet(TTL.minusSeconds(1).toNanos());
+        provider.authenticate(token("editor", "secret"));
+        assertEquals(1, passwordChecks.get());
+
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        provider.authenticate(token("editor", "secret"));
+        assertEquals(2, passwordChecks.get());
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String login, String password){
+        return new UsernamePasswordAuthenticationToken(login, password);
+    }
+
+    private static UserPrincipal user(){
+        UserPrincipal user = new UserPrincipal();
+        user.setId(1L);
+        user.setLogin("editor");
+        return user;
+    }
+}
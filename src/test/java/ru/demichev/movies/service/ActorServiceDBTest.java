@@ -1,10 +1,17 @@
 package ru.demichev.movies.service;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ContextConfiguration;
 import ru.demichev.movies.domain.Actor;
+import ru.demichev.movies.domain.Director;
+import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.dto.NameView;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.service.configuration.ActorServiceConfiguration;
@@ -12,6 +19,14 @@ import ru.demichev.movies.testUtil.DBTest;
 import ru.demichev.movies.testUtil.IntegrationSuite;
 import ru.demichev.movies.testUtil.TestDBFacade;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DBTest
@@ -22,6 +37,8 @@ public class ActorServiceDBTest extends IntegrationSuite {
     private ActorService actorService;
     @Autowired
     private TestDBFacade db;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     @BeforeEach
     void beforeEach(){
@@ -36,6 +53,163 @@ public class ActorServiceDBTest extends IntegrationSuite {
         assertEquals(2,db.count(Actor.class));
     }
 
+    @Test
+    void shouldFindAllWithMoviesLoaded(){
+        Director director = db.persist(new Director("Квентин", "Тарантино",1950));
+        Movie movie = db.persist(new Movie("Криминальное чтиво", "описание", 1994, director));
+        Actor actor = new Actor("Джон", "Траволта",1954);
+        actor.setMovies(new HashSet<>(List.of(movie)));
+        db.persist(actor);
+
+        List<Actor> actors = actorService.findAll();
+        assertEquals(1, actors.size());
+        assertTrue(Hibernate.isInitialized(actors.get(0).getMovies()));
+        assertEquals(1, actors.get(0).getMovies().size());
+    }
+
+    @Test
+    void shouldFetchMoviesOfAllActorsInChunksOfIds(){
+        Director director = db.persist(new Director("Квентин", "Тарантино",1950));
+        Movie movie = db.persist(new Movie("Криминальное чтиво", "описание", 1994, director));
+        db.persistAll(IntStream.range(0, 2500)
+                .mapToObj(i -> {
+                    Actor actor = new Actor("Актёр", "Номер " + i, 1970);
+                    actor.setMovies(new HashSet<>(List.of(movie)));
+                    return actor;
+                })
+                .collect(Collectors.toList()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<Actor> actors = actorService.findAll();
+            assertEquals(2500, actors.size());
+            actors.forEach(actor -> assertTrue(Hibernate.isInitialized(actor.getMovies())));
+            // the actors plus one movie fetch per chunk of 1000 ids
+            assertEquals(4, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void shouldExportActorsChunkByChunk(){
+        Director director = db.persist(new Director("Квентин", "Тарантино",1950));
+        Movie movie = db.persist(new Movie("Криминальное чтиво", "описание", 1994, director));
+        List<Actor> actors = db.persistAll(IntStream.range(0, 1200)
+                .mapToObj(i -> {
+                    Actor actor = new Actor("Актёр", "Номер " + i, 1970);
+                    actor.setMovies(new HashSet<>(List.of(movie)));
+                    return actor;
+                })
+                .collect(Collectors.toList()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<Long> exported = new ArrayList<>();
+            actorService.exportActors(actor -> {
+                assertTrue(Hibernate.isInitialized(actor.getMovies()));
+                assertEquals(Set.of("Криминальное чтиво"),
+                        actor.getMovies().stream().map(Movie::getTitle).collect(Collectors.toSet()));
+                exported.add(actor.getId());
+            });
+
+            assertEquals(actors.stream().map(Actor::getId).collect(Collectors.toList()), exported);
+            // the stream itself plus one movie fetch per chunk of 500
+            assertEquals(4, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void shouldFindPageWithMoviesInTwoStatements(){
+        Director director = db.persist(new Director("Квентин", "Тарантино",1950));
+        List<Movie> movies = db.persistAll(IntStream.range(0, 5)
+                .mapToObj(i -> new Movie("Фильм " + i, "описание", 2000, director))
+                .collect(Collectors.toList()));
+        db.persistAll(IntStream.range(0, 300)
+                .mapToObj(i -> {
+                    Actor actor = new Actor("Актёр", "Номер " + i, 1970);
+                    actor.setMovies(new HashSet<>(movies));
+                    return actor;
+                })
+                .collect(Collectors.toList()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            Slice<Actor> page = actorService.findPage(null, 300);
+            assertEquals(300, page.getContent().size());
+            page.getContent().forEach(actor -> assertEquals(5, actor.getMovies().size()));
+            assertEquals(2, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void shouldSearchNamesSuccessfully(){
+        db.persist(new Actor("Джон", "Траволта",1950));
+        db.persist(new Actor("Колин", "Фаррел",1950));
+        db.persist(new Actor("Колин", "Ферт",1960));
+
+        List<NameView> result = actorService.searchNames("ТРАВ", 10);
+        assertEquals(1, result.size());
+        assertEquals("Траволта Джон", result.get(0).getName());
+
+        assertEquals(2, actorService.searchNames("колин", 10).size());
+        assertEquals(1, actorService.searchNames("колин", 1).size());
+        assertTrue(actorService.searchNames("100%", 10).isEmpty());
+    }
+
+    @Test
+    void shouldFindActorsNotAssignedToMovieByPages(){
+        Director director = db.persist(new Director("Квентин", "Тарантино",1950));
+        Movie movie = db.persist(new Movie("Криминальное чтиво", "описание", 1994, director));
+        Actor assigned = new Actor("Джон", "Траволта",1950);
+        assigned.setMovies(new HashSet<>(List.of(movie)));
+        db.persist(assigned);
+        db.persist(new Actor("Колин", "Фаррел",1950));
+        db.persist(new Actor("Колин", "Ферт",1960));
+        db.persist(new Actor("Ума", "Турман",1970));
+
+        Slice<NameView> first = actorService.findActorsNotAssignedToMovie(movie.getId(), null, null, 2);
+        assertEquals(List.of("Фаррел Колин", "Ферт Колин"),
+                first.getContent().stream().map(NameView::getName).collect(Collectors.toList()));
+        assertTrue(first.hasNext());
+
+        Slice<NameView> second = actorService.findActorsNotAssignedToMovie(
+                movie.getId(), null, first.getContent().get(1).getId(), 2);
+        assertEquals(List.of("Турман Ума"),
+                second.getContent().stream().map(NameView::getName).collect(Collectors.toList()));
+        assertFalse(second.hasNext());
+
+        assertEquals(List.of("Турман Ума"),
+                actorService.findActorsNotAssignedToMovie(movie.getId(), "т", null, 10)
+                        .getContent().stream().map(NameView::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldUpsertActorByNaturalKey(){
+        Actor actor = new Actor("Джон", "Траволта",1954);
+        actor.setCountry("США");
+        Upserted<Actor> created = actorService.upsertActor(actor);
+        assertTrue(created.created());
+
+        Actor changed = new Actor("Джон", "Траволта",1954);
+        changed.setCountry("Италия");
+        Upserted<Actor> updated = actorService.upsertActor(changed);
+        assertFalse(updated.created());
+        assertEquals(created.value().getId(), updated.value().getId());
+        assertEquals("Италия", updated.value().getCountry());
+        assertEquals(1, db.count(Actor.class));
+    }
+
     @Test
     void shouldFindByIdSuccessfully(){
         Actor firstActor = actorService.createActor(new Actor("Джон", "Траволта",1950));
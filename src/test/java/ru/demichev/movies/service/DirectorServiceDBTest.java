@@ -1,10 +1,15 @@
 package ru.demichev.movies.service;
 
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import ru.demichev.movies.domain.Director;
+import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.dto.NameView;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.service.configuration.DirectorServiceConfiguration;
@@ -12,6 +17,13 @@ import ru.demichev.movies.testUtil.DBTest;
 import ru.demichev.movies.testUtil.IntegrationSuite;
 import ru.demichev.movies.testUtil.TestDBFacade;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DBTest
@@ -22,6 +34,8 @@ public class DirectorServiceDBTest extends IntegrationSuite {
     private DirectorService directorService;
     @Autowired
     private TestDBFacade db;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     @BeforeEach
     void beforeEach(){
@@ -36,6 +50,54 @@ public class DirectorServiceDBTest extends IntegrationSuite {
         assertEquals(2,db.count(Director.class));
     }
 
+    @Test
+    void shouldSearchNamesSuccessfully(){
+        db.persist(new Director("Квентин", "Тарантино",1963));
+        db.persist(new Director("Гай", "Ричи",1968));
+        db.persist(new Director("Джеймс", "Кэмерон",1954));
+        db.persist(new Director("Джеймс", "Ганн",1966));
+
+        List<NameView> result = directorService.searchNames("ТАРАН", 10);
+        assertEquals(1, result.size());
+        assertEquals("Тарантино Квентин", result.get(0).getName());
+
+        assertEquals(List.of("Кэмерон Джеймс", "Ганн Джеймс"),
+                directorService.searchNames("джеймс", 10).stream().map(NameView::getName).collect(Collectors.toList()));
+        assertEquals(1, directorService.searchNames("джеймс", 1).size());
+        assertEquals(1, directorService.searchNames("ричи г", 10).size());
+        assertTrue(directorService.searchNames("100%", 10).isEmpty());
+    }
+
+    @Test
+    void shouldExportDirectorsChunkByChunk(){
+        List<Director> directors = db.persistAll(IntStream.range(0, 1200)
+                .mapToObj(i -> new Director("Режиссёр", "Номер " + i, 1960))
+                .collect(Collectors.toList()));
+        db.persist(new Movie("Фильм", "описание", 2000, directors.get(0)));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<Long> exported = new ArrayList<>();
+            directorService.exportDirectors(director -> {
+                assertTrue(Hibernate.isInitialized(director.getMovies()));
+                exported.add(director.getId());
+                if (director.getId().equals(directors.get(0).getId())){
+                    assertEquals(1, director.getMovies().size());
+                } else {
+                    assertTrue(director.getMovies().isEmpty());
+                }
+            });
+
+            assertEquals(directors.stream().map(Director::getId).collect(Collectors.toList()), exported);
+            // the stream itself plus one movie fetch per chunk of 500
+            assertEquals(4, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
     @Test
     void shouldFindByIdSuccessfully(){
         Director firstDirector = directorService.createDirector(new Director("Квентин", "Тарантино",1950));
@@ -47,6 +109,61 @@ public class DirectorServiceDBTest extends IntegrationSuite {
         assertEquals(2,db.count(Director.class));
     }
 
+    @Test
+    void shouldFindByIdWithMoviesLoaded(){
+        Director director = directorService.createDirector(new Director("Квентин", "Тарантино",1950));
+        db.persist(new Movie("Криминальное чтиво", "описание", 1994, director));
+
+        Director result = directorService.findById(director.getId());
+        assertTrue(Hibernate.isInitialized(result.getMovies()));
+        assertEquals(1, result.getMovies().size());
+        db.deleteFromTables("movies.movie");
+    }
+
+    @Test
+    void shouldLoadDirectorFromSecondLevelCache(){
+        Director director = db.persist(new Director("Квентин", "Тарантино",1950));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            assertEquals("Тарантино", find(director.getId()).getLastName());
+            assertEquals("Тарантино", find(director.getId()).getLastName());
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void shouldUpsertDirectorAndEvictItFromSecondLevelCache(){
+        Director director = new Director("Квентин", "Тарантино",1963);
+        director.setCountry("США");
+        Upserted<Director> created = directorService.upsertDirector(director);
+        assertTrue(created.created());
+        assertEquals("США", find(created.value().getId()).getCountry());
+
+        Director changed = new Director("Квентин", "Тарантино",1963);
+        changed.setCountry("Италия");
+        Upserted<Director> updated = directorService.upsertDirector(changed);
+        assertFalse(updated.created());
+        assertEquals(created.value().getId(), updated.value().getId());
+        assertEquals("Италия", updated.value().getCountry());
+        assertEquals("Италия", find(updated.value().getId()).getCountry());
+        assertEquals(1, db.count(Director.class));
+    }
+
+    private Director find(Long id){
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.find(Director.class, id);
+        } finally {
+            entityManager.close();
+        }
+    }
+
     @Test
     void shouldRollbackFindBiId(){
         Director firstDirector = db.persist(new Director("Квентин", "Тарантино",1950));
@@ -1,10 +1,17 @@
 package ru.demichev.movies.service;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
+import ru.demichev.movies.domain.Director;
 import ru.demichev.movies.domain.Genre;
+import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.dto.GenreBulkResultDto;
+import ru.demichev.movies.dto.GenreDto;
+import ru.demichev.movies.dto.MovieDto;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
 import ru.demichev.movies.service.configuration.GenreServiceConfiguration;
@@ -12,7 +19,16 @@ import ru.demichev.movies.testUtil.DBTest;
 import ru.demichev.movies.testUtil.IntegrationSuite;
 import ru.demichev.movies.testUtil.TestDBFacade;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -23,6 +39,8 @@ public class GenreServiceDBTest extends IntegrationSuite {
     private GenreService genreService;
     @Autowired
     private TestDBFacade db;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     @BeforeEach
     void beforeEach(){
@@ -90,6 +108,77 @@ public class GenreServiceDBTest extends IntegrationSuite {
         assertEquals(1,db.count(Genre.class));
     }
 
+    @Test
+    void shouldBatchGenreInserts(){
+        List<Genre> genres = IntStream.range(0, 120)
+                .mapToObj(i -> new Genre("Жанр " + i))
+                .collect(Collectors.toList());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            genreService.createGenres(genres);
+            assertEquals(120, statistics.getEntityInsertCount());
+            // one name check, three sequence calls and three insert batches of 50; row by row it would be 120 inserts
+            assertTrue(statistics.getPrepareStatementCount() <= 10,
+                    "prepared " + statistics.getPrepareStatementCount() + " statements");
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        assertEquals(120, db.count(Genre.class));
+    }
+
+    @Test
+    void shouldCreateGenresBulkSkippingConflicts(){
+        db.persist(new Genre("Фантастика"));
+
+        List<GenreBulkResultDto> result = genreService.createGenresBulk(
+                List.of(
+                        new Genre("Боевик"),
+                        new Genre("фантастика"),
+                        new Genre("Мультфильм"),
+                        new Genre("БОЕВИК")
+                )
+        );
+
+        assertEquals(
+                List.of(
+                        GenreBulkResultDto.Status.CREATED,
+                        GenreBulkResultDto.Status.CONFLICT,
+                        GenreBulkResultDto.Status.CREATED,
+                        GenreBulkResultDto.Status.CONFLICT
+                ),
+                result.stream().map(GenreBulkResultDto::getStatus).collect(Collectors.toList())
+        );
+        assertNotNull(result.get(0).getId());
+        assertNull(result.get(1).getId());
+        assertEquals(3, db.count(Genre.class));
+    }
+
+    @Test
+    void shouldCreateGenresBulkConcurrentlyWithoutFailing() throws Exception {
+        List<Genre> genres = List.of(new Genre("Боевик"), new Genre("Мультфильм"), new Genre("Драма"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<GenreBulkResultDto>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++){
+                futures.add(executor.submit(() -> genreService.createGenresBulk(
+                        genres.stream().map(genre -> new Genre(genre.getName())).collect(Collectors.toList()))));
+            }
+            List<GenreBulkResultDto> results = new ArrayList<>();
+            for (Future<List<GenreBulkResultDto>> future : futures){
+                results.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+
+            assertEquals(3, results.stream().filter(result -> result.getStatus() == GenreBulkResultDto.Status.CREATED).count());
+            assertEquals(9, results.stream().filter(result -> result.getStatus() == GenreBulkResultDto.Status.CONFLICT).count());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(3, db.count(Genre.class));
+    }
+
 
     @Test
     void shouldFindByContainingPrefixSuccessfully(){
@@ -103,12 +192,51 @@ public class GenreServiceDBTest extends IntegrationSuite {
                 )
         );
 
-        List<Genre> resultList = genreService.findByContainingPrefix("б");
+        List<Genre> resultList = genreService.findByContainingPrefix("б", 20);
         assertEquals(2, resultList.size());
         assertEquals(resultList.get(0).getName(),"Боевик");
         assertEquals(resultList.get(1).getName(),"Биография");
     }
 
+    @Test
+    void shouldFindTopMoviesByRatingSuccessfully(){
+        Director director = db.persist(new Director("Квентин", "Тарантино",1950));
+        Movie first = db.persist(new Movie("Джентельмены", "про мужиков",2019, director).withRating(7));
+        Movie second = db.persist(new Movie("Терминатор", "про будущее",1984, director).withRating(9));
+        Movie third = db.persist(new Movie("Криминальное чтиво", "про чемодан",1994, director).withRating(8));
+        db.persist(new Movie("Без рейтинга", "неизвестно",2000, director));
+        Genre action = new Genre("Боевик");
+        action.setMovies(Set.of(first, second, third));
+        db.persist(action);
+        Genre comedy = new Genre("Комедия");
+        comedy.setMovies(Set.of(first));
+        db.persist(comedy);
+        Genre empty = db.persist(new Genre("Мультфильм"));
+
+        List<GenreDto> result = genreService.findGenreWithMovie(List.of(action.getId(), comedy.getId(), empty.getId(), 999L), 2);
+
+        assertEquals(3, result.size());
+        assertEquals(List.of("Терминатор", "Криминальное чтиво"),
+                result.get(0).getMovies().stream().map(MovieDto::getTitle).collect(Collectors.toList()));
+        assertEquals(Integer.valueOf(9), result.get(0).getMovies().iterator().next().getRating());
+        assertEquals(1, result.get(1).getMovies().size());
+        assertTrue(result.get(2).getMovies().isEmpty());
+    }
+
+    @Test
+    void shouldRefreshCachedGenreAfterCommit(){
+        Genre genre = genreService.createGenre(new Genre("боевик"));
+        assertEquals("боевик", genreService.findById(genre.getId()).getName());
+        assertEquals(1, genreService.findAll().size());
+
+        genreService.updateGenre(new Genre("Боевик"), genre.getId());
+        genreService.createGenre(new Genre("Мультфильм"));
+
+        assertEquals("Боевик", genreService.findById(genre.getId()).getName());
+        assertEquals(genre.getId(), genreService.findByName("БОЕВИК").getId());
+        assertEquals(2, genreService.findAll().size());
+    }
+
     @Test
     void shouldUpdateGenreSuccessfully(){
         Genre genre = genreService.createGenre(new Genre("боевик"));
@@ -0,0 +1,136 @@
+package ru.demichev.movies.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import ru.demichev.movies.domain.Actor;
+import ru.demichev.movies.domain.Director;
+import ru.demichev.movies.domain.Genre;
+import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.dto.ImportResultDto;
+import ru.demichev.movies.repository.GenreRepository;
+import ru.demichev.movies.repository.MovieRepository;
+import ru.demichev.movies.service.configuration.MovieImportServiceConfiguration;
+import ru.demichev.movies.service.importer.ImportFormat;
+import ru.demichev.movies.service.importer.MovieImportService;
+import ru.demichev.movies.testUtil.DBTest;
+import ru.demichev.movies.testUtil.IntegrationSuite;
+import ru.demichev.movies.testUtil.TestDBFacade;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DBTest
+@ContextConfiguration(classes = MovieImportServiceConfiguration.class)
+public class MovieImportServiceDBTest extends IntegrationSuite {
+
+    @Autowired
+    private MovieImportService movieImportService;
+
+    @Autowired
+    private TestDBFacade db;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @BeforeEach
+    void beforeEach(){
+        db.cleanDatabase();
+    }
+
+    @Test
+    void shouldImportNdjsonSuccessfully() throws IOException {
+        Director director = db.persist(new Director("Квентин", "Тарантино",1963));
+        db.persist(new Movie("Джентельмены", "про мужиков",2019, director));
+        db.persist(new Genre("Боевик"));
+        String ndjson = """
+                {"title":"Криминальное чтиво","year":1994,"rating":9,"director":{"firstName":"Квентин","lastName":"Тарантино","yearOfBirth":1963},"actors":[{"firstName":"Джон","lastName":"Траволта","yearOfBirth":1954}],"genres":["боевик","Драма"]}
+                {"title":"Бешеные псы","year":1992,"director":{"firstName":"Квентин","lastName":"Тарантино","yearOfBirth":1963},"actors":[{"firstName":"Джон","lastName":"Траволта","yearOfBirth":1954}],"genres":["Драма"]}
+
+                {"title":"Джентельмены","year":2019,"director":{"firstName":"Гай","lastName":"Ричи","yearOfBirth":1968}}
+                {"title":"Без режиссёра","year":2001}
+                {"title":
+                """;
+
+        ImportResultDto result = movieImportService.importMovies(new StringReader(ndjson), ImportFormat.NDJSON, 1);
+
+        assertEquals(5, result.getProcessed());
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(4, result.getErrors().get(0).getLine());
+        assertEquals(3, db.count(Movie.class));
+        assertEquals(1, db.count(Director.class));
+        assertEquals(1, db.count(Actor.class));
+        assertEquals(2, db.count(Genre.class));
+    }
+
+    @Test
+    void shouldNotCollideWithIdsPooledByHibernate() throws IOException {
+        Set<Long> jpaIds = new HashSet<>();
+        for (int round = 0; round < 3; round++){
+            // Hibernate keeps the rest of its 50-id block in memory while the importer reserves its own blocks
+            genreRepository.saveAll(List.of(new Genre("JPA " + round + "a"), new Genre("JPA " + round + "b")))
+                    .forEach(genre -> jpaIds.add(genre.getId()));
+            String ndjson = String.format(
+                    "{\"title\":\"Фильм %d\",\"year\":2000,\"director\":{\"firstName\":\"Гай\",\"lastName\":\"Ричи\",\"yearOfBirth\":1968},\"genres\":[\"Импорт %da\",\"Импорт %db\"]}",
+                    round, round, round);
+
+            ImportResultDto result = movieImportService.importMovies(new StringReader(ndjson), ImportFormat.NDJSON, 10);
+
+            assertEquals(1, result.getImported());
+        }
+
+        Set<Long> allIds = new HashSet<>();
+        genreRepository.findAll().forEach(genre -> allIds.add(genre.getId()));
+        assertEquals(6, jpaIds.size());
+        assertEquals(12, allIds.size());
+        assertTrue(allIds.containsAll(jpaIds));
+    }
+
+    @Test
+    void shouldImportCsvSuccessfully() throws IOException {
+        String csv = """
+                title,year,description,rating,director,actors,genres
+                "Аватар, режиссёрская версия",2009,"про ""другую"" планету",8,Джеймс;;Кэмерон;1954,Сэм;;Уортингтон;1976|Зои;;Салдана;1978,Фантастика
+                Титаник,1997,,7,Джеймс;;Кэмерон;1954,,Драма|драма
+                """;
+
+        ImportResultDto result = movieImportService.importMovies(new StringReader(csv), ImportFormat.CSV, 1000);
+
+        assertEquals(2, result.getImported());
+        assertEquals(0, result.getFailed());
+        assertEquals(1, db.count(Director.class));
+        assertEquals(2, db.count(Actor.class));
+        assertEquals(2, db.count(Genre.class));
+    }
+
+    @Test
+    void shouldImportCsvWithMultiLineDescription() throws IOException {
+        String csv = """
+                title,year,description,rating,director,actors,genres
+                Аватар,2009,"про другую планету,
+
+                где ""синие"" люди",8,Джеймс;;Кэмерон;1954,,Фантастика
+                Титаник,1997,,7,Джеймс;;Кэмерон;1954,,Драма
+                Чужие,abc,,7,Джеймс;;Кэмерон;1954,,Фантастика
+                """;
+
+        ImportResultDto result = movieImportService.importMovies(new StringReader(csv), ImportFormat.CSV, 1000);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        // errors point at the line the record starts on
+        assertEquals(6, result.getErrors().get(0).getLine());
+        assertEquals("про другую планету,\n\nгде \"синие\" люди",
+                movieRepository.findByTitleAndYear("Аватар", 2009).orElseThrow().getDescription());
+    }
+}
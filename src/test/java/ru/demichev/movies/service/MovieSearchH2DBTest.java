@@ -0,0 +1,76 @@
+package ru.demichev.movies.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.demichev.movies.domain.Director;
+import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.service.configuration.MovieServiceConfiguration;
+import ru.demichev.movies.testUtil.TestDBFacade;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// runs the LIKE fallback of CustomMovieRepositoryImpl.searchIds, PostgreSQL takes the full-text branch
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(TestDBFacade.class)
+@ContextConfiguration(classes = MovieServiceConfiguration.class)
+public class MovieSearchH2DBTest {
+
+    @Autowired
+    private MovieService movieService;
+    @Autowired
+    private TestDBFacade db;
+
+    @BeforeEach
+    void beforeEach(){
+        db.cleanDatabase();
+        Director director = db.persist(new Director("Джеймс", "Кэмерон",1954));
+        db.persist(new Movie("Аватар", "про другую планету",2009,director));
+        db.persist(new Movie("Терминатор", "про будущее и аватар машины",1984,director));
+        db.persist(new Movie("Титаник", "про корабль, 100% драма",1997,director));
+        db.persist(new Movie("Чужие", "про планету LV_426",1986,director));
+    }
+
+    @Test
+    void shouldRankTitleMatchesFirstIgnoringCase(){
+        Slice<Movie> result = movieService.search("АВАТАР", 0, 10);
+        assertEquals(List.of("Аватар", "Терминатор"), titles(result));
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void shouldTreatWildcardsLiterally(){
+        assertEquals(List.of("Титаник"), titles(movieService.search("100%", 0, 10)));
+        assertEquals(List.of("Чужие"), titles(movieService.search("lv_4", 0, 10)));
+        assertTrue(movieService.search("lv%4", 0, 10).isEmpty());
+    }
+
+    @Test
+    void shouldPageResults(){
+        Slice<Movie> first = movieService.search("про", 0, 3);
+        assertEquals(3, first.getNumberOfElements());
+        assertTrue(first.hasNext());
+
+        Slice<Movie> second = movieService.search("про", 3, 3);
+        assertEquals(1, second.getNumberOfElements());
+        assertFalse(second.hasNext());
+    }
+
+    private static List<String> titles(Slice<Movie> movies){
+        return movies.getContent().stream().map(Movie::getTitle).collect(Collectors.toList());
+    }
+}
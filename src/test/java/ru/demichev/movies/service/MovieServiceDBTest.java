@@ -2,19 +2,36 @@ package ru.demichev.movies.service;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ContextConfiguration;
+import ru.demichev.movies.domain.Actor;
 import ru.demichev.movies.domain.Director;
+import ru.demichev.movies.domain.Genre;
 import ru.demichev.movies.domain.Movie;
+import ru.demichev.movies.dto.MovieDto;
 import ru.demichev.movies.exceptions.ExistsException;
 import ru.demichev.movies.exceptions.NotFoundException;
+import ru.demichev.movies.mapper.impl.MovieMapperImpl;
+import ru.demichev.movies.repository.MovieLink;
 import ru.demichev.movies.service.configuration.DirectorServiceConfiguration;
 import ru.demichev.movies.service.configuration.MovieServiceConfiguration;
 import ru.demichev.movies.testUtil.DBTest;
 import ru.demichev.movies.testUtil.IntegrationSuite;
 import ru.demichev.movies.testUtil.TestDBFacade;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DBTest
@@ -29,6 +46,9 @@ public class MovieServiceDBTest extends IntegrationSuite {
 
     @Autowired
     private TestDBFacade db;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
     private Director firstDirector;
 
     @BeforeEach
@@ -50,6 +70,127 @@ public class MovieServiceDBTest extends IntegrationSuite {
         assertEquals(2,db.count(Movie.class));
     }
 
+    @Test
+    void shouldFindPageWithFixedStatementCount(){
+        List<Movie> movies = db.persistAll(IntStream.range(0, 500)
+                .mapToObj(i -> new Movie("Фильм " + i, "описание", 2000, firstDirector))
+                .collect(Collectors.toList()));
+        for (int i = 0; i < 3; i++){
+            Actor actor = new Actor("Актёр", "Номер " + i, 1970);
+            actor.setMovies(new HashSet<>(movies));
+            db.persist(actor);
+        }
+        for (int i = 0; i < 2; i++){
+            Genre genre = new Genre("Жанр " + i);
+            genre.setMovies(new HashSet<>(movies));
+            db.persist(genre);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            Slice<Movie> page = movieService.findPage(null, 500);
+            MovieMapperImpl mapper = new MovieMapperImpl(null);
+            List<MovieDto> result = page.getContent().stream().map(mapper::toDto).collect(Collectors.toList());
+
+            assertEquals(500, result.size());
+            result.forEach(movie -> {
+                assertEquals("Тарантино", movie.getDirector());
+                assertEquals(3, movie.getActors().size());
+                assertEquals(2, movie.getGenres().size());
+            });
+            assertEquals(3, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+            db.deleteFromTables("movies.actor_movies", "movies.genre_movies", "movies.actor", "movies.genre");
+        }
+    }
+
+    @Test
+    void shouldFetchAssociationsOfAllMoviesInChunksOfIds(){
+        List<Movie> movies = db.persistAll(IntStream.range(0, 2500)
+                .mapToObj(i -> new Movie("Фильм " + i, "описание", 2000, firstDirector))
+                .collect(Collectors.toList()));
+        Genre genre = new Genre("Жанр");
+        genre.setMovies(new HashSet<>(movies));
+        db.persist(genre);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<Movie> result = movieService.findAll();
+
+            assertEquals(2500, result.size());
+            result.forEach(movie -> {
+                assertTrue(Hibernate.isInitialized(movie.getActors()));
+                assertEquals(1, movie.getGenres().size());
+            });
+            // the movies plus an actor and a genre fetch per chunk of 1000 ids
+            assertEquals(7, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+            db.deleteFromTables("movies.genre_movies", "movies.genre");
+        }
+    }
+
+    @Test
+    void shouldExportMoviesChunkByChunk(){
+        List<Movie> movies = db.persistAll(IntStream.range(0, 1200)
+                .mapToObj(i -> new Movie("Фильм " + i, "описание", 2000, firstDirector))
+                .collect(Collectors.toList()));
+        Genre genre = new Genre("Жанр");
+        genre.setMovies(new HashSet<>(movies));
+        db.persist(genre);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            MovieMapperImpl mapper = new MovieMapperImpl(null);
+            List<MovieDto> result = new ArrayList<>();
+            movieService.exportMovies(movie -> result.add(mapper.toDto(movie)));
+
+            assertEquals(movies.stream().map(Movie::getId).collect(Collectors.toList()),
+                    result.stream().map(MovieDto::getId).collect(Collectors.toList()));
+            result.forEach(movie -> {
+                assertEquals("Тарантино", movie.getDirector());
+                assertEquals(Set.of("Жанр"), movie.getGenres());
+            });
+            assertEquals(7, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+            db.deleteFromTables("movies.genre_movies", "movies.genre");
+        }
+    }
+
+    @Test
+    void shouldAssignActorsIdempotently(){
+        Movie first = db.persist(new Movie("Джентельмены", "про мужиков",2019,firstDirector));
+        Movie second = db.persist(new Movie("Терминатор", "про будущее",1984,firstDirector));
+        Actor actor = db.persist(new Actor("Колин", "Фаррел",1976));
+        Actor other = db.persist(new Actor("Мэттью", "Макконахи",1969));
+        try {
+            List<MovieLink> links = List.of(
+                    new MovieLink(first.getId(), actor.getId()),
+                    new MovieLink(first.getId(), other.getId()),
+                    new MovieLink(second.getId(), actor.getId()),
+                    new MovieLink(first.getId(), actor.getId())
+            );
+            assertEquals(3, movieService.assignActors(links));
+            assertEquals(0, movieService.assignActors(links));
+            assertEquals(2, movieService.findById(first.getId()).getActors().size());
+            assertThrows(
+                    NotFoundException.class,
+                    () -> movieService.assignActors(List.of(new MovieLink(second.getId(), other.getId() + 1000)))
+            );
+            assertEquals(1, movieService.findById(second.getId()).getActors().size());
+        } finally {
+            db.deleteFromTables("movies.actor_movies", "movies.actor");
+        }
+    }
+
     @Test
     void shouldFindByIdSuccessfully(){
         Movie firstMovie = movieService.createMovie(new Movie("Джентельмены", "про мужиков",2019,firstDirector));
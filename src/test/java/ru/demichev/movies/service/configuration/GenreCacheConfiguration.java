@@ -0,0 +1,13 @@
+package ru.demichev.movies.service.configuration;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import ru.demichev.movies.cache.GenreCache;
+
+@TestConfiguration
+public class GenreCacheConfiguration {
+    @Bean
+    public GenreCache genreCache(){
+        return new GenreCache(1000);
+    }
+}
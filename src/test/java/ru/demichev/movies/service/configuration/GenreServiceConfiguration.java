@@ -2,13 +2,16 @@ package ru.demichev.movies.service.configuration;
 
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import ru.demichev.movies.cache.GenreCache;
 import ru.demichev.movies.repository.GenreRepository;
 import ru.demichev.movies.service.GenreService;
 
 @TestConfiguration
+@Import(GenreCacheConfiguration.class)
 public class GenreServiceConfiguration {
     @Bean
-    public GenreService genreService(GenreRepository genreRepository){
-        return new GenreService(genreRepository);
+    public GenreService genreService(GenreRepository genreRepository, GenreCache genreCache){
+        return new GenreService(genreRepository, genreCache);
     }
 }
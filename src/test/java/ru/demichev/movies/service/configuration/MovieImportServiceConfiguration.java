@@ -0,0 +1,32 @@
+package ru.demichev.movies.service.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.demichev.movies.cache.GenreCache;
+import ru.demichev.movies.service.importer.MovieImportService;
+
+import javax.persistence.EntityManagerFactory;
+import javax.validation.Validation;
+
+@TestConfiguration
+@Import(GenreCacheConfiguration.class)
+public class MovieImportServiceConfiguration {
+    @Bean
+    public MovieImportService movieImportService(NamedParameterJdbcTemplate jdbcTemplate,
+                                                 TransactionTemplate transactionTemplate,
+                                                 GenreCache genreCache,
+                                                 EntityManagerFactory entityManagerFactory){
+        return new MovieImportService(
+                jdbcTemplate,
+                transactionTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(),
+                genreCache,
+                entityManagerFactory
+        );
+    }
+}
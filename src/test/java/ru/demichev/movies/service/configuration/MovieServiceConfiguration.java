@@ -2,6 +2,9 @@ package ru.demichev.movies.service.configuration;
 
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import ru.demichev.movies.repository.ActorRepository;
+import ru.demichev.movies.repository.DirectorRepository;
+import ru.demichev.movies.repository.GenreRepository;
 import ru.demichev.movies.repository.MovieRepository;
 import ru.demichev.movies.service.MovieService;
 
@@ -9,7 +12,10 @@ import ru.demichev.movies.service.MovieService;
 public class MovieServiceConfiguration {
 
     @Bean
-    public MovieService movieService(MovieRepository movieRepository){
-        return new MovieService(movieRepository);
+    public MovieService movieService(MovieRepository movieRepository,
+                                     ActorRepository actorRepository,
+                                     GenreRepository genreRepository,
+                                     DirectorRepository directorRepository){
+        return new MovieService(movieRepository, actorRepository, genreRepository, directorRepository);
     }
 }
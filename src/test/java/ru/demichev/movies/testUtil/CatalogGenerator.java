@@ -0,0 +1,358 @@
+package ru.demichev.movies.testUtil;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates a synthetic catalog with skewed distributions and bulk loads it.
+ * PostgreSQL is loaded through COPY, any other database through JDBC batches.
+ * Tables are expected to be empty and the schema to exist.
+ */
+@Slf4j
+public class CatalogGenerator {
+    private static final String[] WORDS = {
+            "story", "night", "city", "war", "love", "return", "last", "dark", "summer", "road",
+            "family", "secret", "island", "winter", "game", "king", "shadow", "river", "dream", "stranger"
+    };
+    private static final String[] FIRST_NAMES = {"Anna", "Ivan", "Maria", "Pavel", "Olga", "Sergey", "Elena", "Dmitry"};
+    private static final String[] COUNTRIES = {"USA", "Russia", "France", "UK", "Japan", "Italy", "Germany", "India"};
+    private static final int BATCH_SIZE = 1_000;
+    private static final int MAX_FILMOGRAPHY = 1_000;
+    private static final int COPY_BUFFER_SIZE = 1 << 20;
+    private static final double FILMOGRAPHY_SKEW = 1.1;
+    private static final double GENRE_SKEW = 1.0;
+    private static final double DIRECTOR_SKEW = 0.8;
+
+    private final Spec spec;
+    private final SplittableRandom random;
+
+    public CatalogGenerator(Spec spec) {
+        this.spec = spec;
+        this.random = new SplittableRandom(spec.seed());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Spec spec = Spec.fromSystemProperties();
+        try (Connection connection = DriverManager.getConnection(
+                System.getProperty("catalog.url", "jdbc:postgresql://localhost:5434/movies"),
+                System.getProperty("catalog.username", "movies"),
+                System.getProperty("catalog.password", "movies"))){
+            new CatalogGenerator(spec).load(connection);
+        }
+    }
+
+    public long load(Connection connection) throws SQLException {
+        long started = System.nanoTime();
+        boolean postgres = connection.isWrapperFor(BaseConnection.class);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            loadDirectors(connection, postgres);
+            loadGenres(connection, postgres);
+            loadMovies(connection, postgres);
+            loadActors(connection, postgres);
+            long links = loadActorMovies(connection, postgres);
+            loadGenreMovies(connection, postgres);
+            restartSequences(connection, postgres);
+            connection.commit();
+            log.info("Generated {} directors, {} genres, {} movies, {} actors, {} actor links in {} s ({})",
+                    spec.directors(), spec.genres(), spec.movies(), spec.actors(), links,
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started), postgres ? "COPY" : "batch insert");
+            return links;
+        } catch (SQLException | RuntimeException e){
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void loadDirectors(Connection connection, boolean postgres) throws SQLException {
+        try (TableWriter writer = writer(connection, postgres, "movies.director",
+                "director_id", "first_name", "last_name", "year_of_birth", "country")){
+            for (long id = 1; id <= spec.directors(); id++){
+                writer.row(id, pick(FIRST_NAMES), "Director " + id, 1930 + random.nextInt(70), pick(COUNTRIES));
+            }
+        }
+    }
+
+    private void loadGenres(Connection connection, boolean postgres) throws SQLException {
+        try (TableWriter writer = writer(connection, postgres, "movies.genre", "genre_id", "name")){
+            for (long id = 1; id <= spec.genres(); id++){
+                writer.row(id, "Genre " + id);
+            }
+        }
+    }
+
+    private void loadMovies(Connection connection, boolean postgres) throws SQLException {
+        ZipfSampler directors = new ZipfSampler(spec.directors(), DIRECTOR_SKEW);
+        try (TableWriter writer = writer(connection, postgres, "movies.movie",
+                "movie_id", "movie_title", "movie_year", "description", "rating", "director_id")){
+            for (long id = 1; id <= spec.movies(); id++){
+                writer.row(id, capitalize(pick(WORDS)) + " " + pick(WORDS) + " " + id, year(), description(), rating(),
+                        (long) directors.sample(random));
+            }
+        }
+    }
+
+    private void loadActors(Connection connection, boolean postgres) throws SQLException {
+        try (TableWriter writer = writer(connection, postgres, "movies.actor",
+                "actor_id", "first_name", "last_name", "year_of_birth", "biography", "country")){
+            for (long id = 1; id <= spec.actors(); id++){
+                writer.row(id, pick(FIRST_NAMES), "Actor " + id, 1930 + random.nextInt(80), description(), pick(COUNTRIES));
+            }
+        }
+    }
+
+    // actor of rank r plays in links / r^s movies capped at MAX_FILMOGRAPHY, what the cap cuts off is spread evenly;
+    // movies are picked with a stride coprime to the movie count, so an actor never gets the same movie twice
+    private long loadActorMovies(Connection connection, boolean postgres) throws SQLException {
+        int cap = Math.min(MAX_FILMOGRAPHY, spec.movies());
+        double norm = 0;
+        for (int rank = 1; rank <= spec.actors(); rank++){
+            norm += 1 / Math.pow(rank, FILMOGRAPHY_SKEW);
+        }
+        double capped = 0;
+        for (int rank = 1; rank <= spec.actors(); rank++){
+            capped += Math.min(cap, filmography(rank, norm));
+        }
+        double extra = Math.max(0, spec.links() - capped) / spec.actors();
+
+        long stride = coprimeStride(spec.movies());
+        long links = 0;
+        double carry = 0;
+        try (TableWriter writer = writer(connection, postgres, "movies.actor_movies", "actors_actor_id", "movies_movie_id")){
+            for (int rank = 1; rank <= spec.actors(); rank++){
+                double expected = Math.min(cap, filmography(rank, norm)) + extra + carry;
+                long count = Math.min((long) expected, cap);
+                carry = count < cap ? expected - count : 0;
+                long start = random.nextInt(spec.movies());
+                for (long i = 0; i < count; i++){
+                    writer.row((long) rank, (start + i * stride) % spec.movies() + 1);
+                }
+                links += count;
+            }
+        }
+        return links;
+    }
+
+    private double filmography(int rank, double norm){
+        return spec.links() / Math.pow(rank, FILMOGRAPHY_SKEW) / norm;
+    }
+
+    private void loadGenreMovies(Connection connection, boolean postgres) throws SQLException {
+        ZipfSampler genres = new ZipfSampler(spec.genres(), GENRE_SKEW);
+        try (TableWriter writer = writer(connection, postgres, "movies.genre_movies", "genres_genre_id", "movies_movie_id")){
+            for (long movieId = 1; movieId <= spec.movies(); movieId++){
+                int first = genres.sample(random);
+                writer.row((long) first, movieId);
+                if (spec.genres() > 1 && random.nextInt(3) > 0){
+                    int second = genres.sample(random);
+                    if (second != first){
+                        writer.row((long) second, movieId);
+                    }
+                }
+            }
+        }
+    }
+
+    // pooled ids hand out (value - 49 .. value), so the sequence must sit at the max id
+    private void restartSequences(Connection connection, boolean postgres) throws SQLException {
+        try (Statement statement = connection.createStatement()){
+            restartSequence(statement, postgres, "movies.director_director_id_seq", spec.directors());
+            restartSequence(statement, postgres, "movies.genre_genre_id_seq", spec.genres());
+            restartSequence(statement, postgres, "movies.movie_movie_id_seq", spec.movies());
+            restartSequence(statement, postgres, "movies.actor_actor_id_seq", spec.actors());
+        }
+    }
+
+    private static void restartSequence(Statement statement, boolean postgres, String sequence, long maxId) throws SQLException {
+        if (postgres){
+            statement.execute(String.format("select setval('%s', %s)", sequence, maxId));
+        } else {
+            statement.execute(String.format("alter sequence %s restart with %s", sequence, maxId + 50));
+        }
+    }
+
+    private int year(){
+        int age = (int) (-12 * Math.log(1 - random.nextDouble()));
+        return Math.max(1920, 2024 - age);
+    }
+
+    private int rating(){
+        return (int) Math.max(0, Math.min(10, Math.round(6.5 + 1.8 * gaussian())));
+    }
+
+    private String description(){
+        int length = (int) Math.max(20, Math.min(4_000, Math.exp(Math.log(200) + 0.8 * gaussian())));
+        StringBuilder description = new StringBuilder(length + 16);
+        while (description.length() < length){
+            description.append(pick(WORDS)).append(' ');
+        }
+        return description.toString().trim();
+    }
+
+    private double gaussian(){
+        double u = 1 - random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private String pick(String[] values){
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(String value){
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+
+    private static long coprimeStride(long modulus){
+        long stride = Math.max(1, (long) (modulus * 0.618)) | 1;
+        while (gcd(stride, modulus) != 1){
+            stride += 2;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b){
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static TableWriter writer(Connection connection, boolean postgres, String table, String... columns) throws SQLException {
+        return postgres
+                ? new CopyWriter(connection.unwrap(BaseConnection.class), table, columns)
+                : new BatchWriter(connection, table, columns);
+    }
+
+    public record Spec(int movies, int actors, int directors, int genres, long links, long seed) {
+        public static Spec fromSystemProperties(){
+            return new Spec(
+                    Integer.getInteger("catalog.movies", 1_000_000),
+                    Integer.getInteger("catalog.actors", 200_000),
+                    Integer.getInteger("catalog.directors", 20_000),
+                    Integer.getInteger("catalog.genres", 40),
+                    Long.getLong("catalog.links", 5_000_000L),
+                    Long.getLong("catalog.seed", 42L)
+            );
+        }
+    }
+
+    private static final class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int size, double skew) {
+            cumulative = new double[size];
+            double sum = 0;
+            for (int rank = 1; rank <= size; rank++){
+                sum += 1 / Math.pow(rank, skew);
+                cumulative[rank - 1] = sum;
+            }
+            for (int i = 0; i < size; i++){
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random){
+            double point = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high){
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] < point){
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low + 1;
+        }
+    }
+
+    private interface TableWriter extends AutoCloseable {
+        void row(Object... values) throws SQLException;
+
+        @Override
+        void close() throws SQLException;
+    }
+
+    private static final class CopyWriter implements TableWriter {
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 4_096);
+
+        CopyWriter(BaseConnection connection, String table, String... columns) throws SQLException {
+            copyIn = new CopyManager(connection).copyIn(String.format(
+                    "copy %s (%s) from stdin with (format csv)", table, String.join(", ", columns)));
+        }
+
+        @Override
+        public void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++){
+                if (i > 0){
+                    buffer.append(',');
+                }
+                if (values[i] instanceof String value){
+                    buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+                } else if (values[i] != null){
+                    buffer.append(values[i]);
+                }
+            }
+            buffer.append('\n');
+            if (buffer.length() >= COPY_BUFFER_SIZE){
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    private static final class BatchWriter implements TableWriter {
+        private final PreparedStatement statement;
+        private int pending;
+
+        BatchWriter(Connection connection, String table, String... columns) throws SQLException {
+            statement = connection.prepareStatement(String.format("insert into %s (%s) values (%s)",
+                    table, String.join(", ", columns), String.join(", ", Collections.nCopies(columns.length, "?"))));
+        }
+
+        @Override
+        public void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++){
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++pending == BATCH_SIZE){
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (pending > 0){
+                statement.executeBatch();
+            }
+            statement.close();
+        }
+    }
+}
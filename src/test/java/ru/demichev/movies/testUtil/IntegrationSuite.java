@@ -13,7 +13,7 @@ import java.util.Map;
 
 @ContextConfiguration(initializers = IntegrationSuite.Initializer.class)
 public class IntegrationSuite {
-    private static final DockerImageName POSTGRES_IMAGE = DockerImageName.parse("postgres:9.6.8");
+    private static final DockerImageName POSTGRES_IMAGE = DockerImageName.parse("postgres:14");
 
     public static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(POSTGRES_IMAGE);
 
@@ -1,11 +1,16 @@
 package ru.demichev.movies.testUtil;
 
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.context.TestComponent;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.jdbc.JdbcTestUtils;
 import org.springframework.transaction.support.TransactionTemplate;
+import ru.demichev.movies.cache.GenreCache;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
 
 @TestComponent
 public class TestDBFacade {
@@ -15,18 +20,51 @@ public class TestDBFacade {
     private TransactionTemplate transactionTemplate;
     @Autowired
     private TestEntityManager testEntityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired(required = false)
+    private GenreCache genreCache;
 
 
     public void cleanDatabase(){
+        deleteFromTables(
+                "movies.actor_movies","movies.genre_movies","movies.user_roles",
+                "movies.genre","movies.actor","movies.movie","movies.director","movies.user","movies.role"
+        );
+    }
+
+    public void deleteFromTables(String... tables){
         transactionTemplate.executeWithoutResult(
-           transactionStatus -> JdbcTestUtils.deleteFromTables(jdbcTemplate,"movies.genre","movies.director","movies.actor","movies.movie","movies.user","movies.role")
+           transactionStatus -> JdbcTestUtils.deleteFromTables(jdbcTemplate, tables)
         );
+        evictCaches();
     }
 
     public <T> T persist(T t){
-        return transactionTemplate.execute(
+        T persisted = transactionTemplate.execute(
                 status -> testEntityManager.persistAndFlush(t)
         );
+        evictCaches();
+        return persisted;
+    }
+
+    public <T> List<T> persistAll(List<T> list){
+        List<T> persisted = transactionTemplate.execute(
+                status -> {
+                    list.forEach(testEntityManager::persist);
+                    testEntityManager.flush();
+                    return list;
+                }
+        );
+        evictCaches();
+        return persisted;
+    }
+
+    private void evictCaches(){
+        if (genreCache != null){
+            genreCache.invalidateAll();
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
     }
 
     public <T> long count(Class<?> clazz){
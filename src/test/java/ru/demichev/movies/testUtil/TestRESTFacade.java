@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
@@ -31,6 +32,22 @@ public class TestRESTFacade {
         );
     }
 
+    public <T> ResponseEntity<T> exchange(
+            String url,
+            HttpMethod httpMethod,
+            HttpHeaders headers,
+            Object body,
+            Class<T> responseType
+    ) {
+        return rest
+                .exchange(
+                "http://localhost:" + environment.getProperty("local.server.port") + url,
+                httpMethod,
+                new HttpEntity<>(body, headers),
+                responseType
+        );
+    }
+
     public TestRestTemplate withBasicAuth(String username, String password){
         return rest.withBasicAuth(username,password);
     }